@@ -0,0 +1,20 @@
+package com.hegetomi.taskify.audit;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every archived revision of one ticket and its comments within a segment, stored as one compressed block.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchiveBlock {
+
+    private List<ArchivedTicketRevision> tickets = new ArrayList<>();
+    private List<ArchivedCommentRevision> comments = new ArrayList<>();
+}
@@ -0,0 +1,23 @@
+package com.hegetomi.taskify.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedCommentRevision {
+
+    private Long id;
+    private Integer rev;
+    private Long revisionTimestamp;
+    private Byte revisionType;
+    private LocalDateTime commentDate;
+    private String posterName;
+    private byte[] value;
+}
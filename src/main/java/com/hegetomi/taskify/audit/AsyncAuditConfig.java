@@ -0,0 +1,16 @@
+package com.hegetomi.taskify.audit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AsyncAuditConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer enversListenerCustomizer(
+            @Value("${taskify.audit.async.enabled:false}") boolean asyncEnabled) {
+        return properties -> properties.put("hibernate.envers.autoRegisterListeners", String.valueOf(!asyncEnabled));
+    }
+}
@@ -0,0 +1,219 @@
+package com.hegetomi.taskify.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hegetomi.taskify.dto.TicketRevision;
+import com.hegetomi.taskify.util.CompressedTextConverter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Cold storage for archived audit revisions. Each archiving run appends an immutable segment file of compressed
+ * per-ticket blocks, plus an index of ticket id to block offset that is kept in memory. The index is written
+ * last, so a segment without one is an interrupted run and is discarded on startup.
+ * <p>
+ * The files are local to this instance; see {@link AuditArchiver} for why archiving runs on one instance only.
+ */
+@Component
+@Slf4j
+public class AuditArchive {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final CompressedTextConverter codec = new CompressedTextConverter();
+    private final NavigableMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private volatile int archivedThrough;
+
+    public AuditArchive(@Value("${taskify.audit.archive.dir:audit-archive}") String directory,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry) {
+        this.directory = Paths.get(directory);
+        this.objectMapper = objectMapper;
+        Gauge.builder("taskify.audit.archive.segments", segments, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(INDEX_SUFFIX)) {
+                    register(readIndex(file));
+                } else if (fileName.endsWith(TMP_SUFFIX) || fileName.endsWith(SEGMENT_SUFFIX)
+                        && !Files.exists(sibling(file, INDEX_SUFFIX))) {
+                    log.warn("Discarding incomplete audit archive file {}", file);
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Audit archive loaded {} segments up to revision {}", segments.size(), archivedThrough);
+    }
+
+    public int archivedThrough() {
+        return archivedThrough;
+    }
+
+    public List<TicketRevision> findRevisions(long ticketId, int fromRev, int toRev, int limit) {
+        List<TicketRevision> revisions = new ArrayList<>();
+        Integer first = segments.floorKey(fromRev);
+        Collection<Segment> candidates = first == null ? segments.values() : segments.tailMap(first, true).values();
+        for (Segment segment : candidates) {
+            if (segment.firstRev > toRev) {
+                break;
+            }
+            ArchiveBlock block = segment.lastRev < fromRev ? null : readBlock(segment, ticketId);
+            if (block == null) {
+                continue;
+            }
+            for (ArchivedTicketRevision revision : block.getTickets()) {
+                if (revision.getRev() >= fromRev && revision.getRev() <= toRev) {
+                    revisions.add(revision);
+                    if (revisions.size() == limit) {
+                        return revisions;
+                    }
+                }
+            }
+        }
+        return revisions;
+    }
+
+    public void append(int firstRev, int lastRev, SortedMap<Long, ArchiveBlock> blocks) throws IOException {
+        Files.createDirectories(directory);
+        String name = String.format("segment-%010d-%010d", firstRev, lastRev);
+        Path segmentFile = directory.resolve(name + SEGMENT_SUFFIX);
+        Path indexFile = directory.resolve(name + INDEX_SUFFIX);
+        Path indexTmp = directory.resolve(name + INDEX_SUFFIX + TMP_SUFFIX);
+        long[] ticketIds = new long[blocks.size()];
+        long[] offsets = new long[blocks.size()];
+        int[] lengths = new int[blocks.size()];
+        try {
+            try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long offset = 0;
+                int i = 0;
+                for (Map.Entry<Long, ArchiveBlock> entry : blocks.entrySet()) {
+                    byte[] block = codec.convertToDatabaseColumn(objectMapper.writeValueAsString(entry.getValue()));
+                    ByteBuffer buffer = ByteBuffer.wrap(block);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    ticketIds[i] = entry.getKey();
+                    offsets[i] = offset;
+                    lengths[i] = block.length;
+                    offset += block.length;
+                    i++;
+                }
+                channel.force(true);
+            }
+            try (FileOutputStream file = new FileOutputStream(indexTmp.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(ticketIds.length);
+                for (int i = 0; i < ticketIds.length; i++) {
+                    out.writeLong(ticketIds[i]);
+                    out.writeLong(offsets[i]);
+                    out.writeInt(lengths[i]);
+                }
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(indexTmp, indexFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(indexTmp);
+            Files.deleteIfExists(segmentFile);
+            throw e;
+        }
+        register(new Segment(segmentFile, firstRev, lastRev, ticketIds, offsets, lengths));
+    }
+
+    private void register(Segment segment) {
+        segments.put(segment.firstRev, segment);
+        archivedThrough = Math.max(archivedThrough, segment.lastRev);
+    }
+
+    private Segment readIndex(Path indexFile) throws IOException {
+        String name = indexFile.getFileName().toString();
+        String[] revs = name.substring("segment-".length(), name.length() - INDEX_SUFFIX.length()).split("-");
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(indexFile))) {
+            int count = in.readInt();
+            long[] ticketIds = new long[count];
+            long[] offsets = new long[count];
+            int[] lengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                ticketIds[i] = in.readLong();
+                offsets[i] = in.readLong();
+                lengths[i] = in.readInt();
+            }
+            return new Segment(sibling(indexFile, SEGMENT_SUFFIX), Integer.parseInt(revs[0]),
+                    Integer.parseInt(revs[1]), ticketIds, offsets, lengths);
+        }
+    }
+
+    private ArchiveBlock readBlock(Segment segment, long ticketId) {
+        int i = Arrays.binarySearch(segment.ticketIds, ticketId);
+        if (i < 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(segment.lengths[i]);
+        try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, segment.offsets[i] + buffer.position()) < 0) {
+                    throw new EOFException("Truncated audit archive segment " + segment.file);
+                }
+            }
+            return objectMapper.readValue(codec.convertToEntityAttribute(buffer.array()), ArchiveBlock.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        String name = file.getFileName().toString();
+        return file.resolveSibling(name.substring(0, name.lastIndexOf('.')) + suffix);
+    }
+
+    @AllArgsConstructor
+    private static class Segment {
+        private final Path file;
+        private final int firstRev;
+        private final int lastRev;
+        private final long[] ticketIds;
+        private final long[] offsets;
+        private final int[] lengths;
+    }
+}
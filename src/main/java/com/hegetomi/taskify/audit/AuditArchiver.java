@@ -0,0 +1,245 @@
+package com.hegetomi.taskify.audit;
+
+import com.hegetomi.taskify.enums.Priority;
+import com.hegetomi.taskify.enums.Status;
+import com.hegetomi.taskify.enums.Type;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves audit revisions older than the configured age from the audit tables into the {@link AuditArchive}.
+ * The audit tables are range partitioned on rev; every run closes the open partition at the current
+ * revision, so partitions follow the archiving interval and fully archived ones are dropped instead of
+ * deleted row by row. Without partitioning (e.g. a schema created by Hibernate) only the chunked deletes run.
+ * <p>
+ * The archive lives on this instance's disk while the pruned rows are shared, so archiving must be enabled on
+ * a single designated instance, and only that instance can serve archived revisions; history read on any other
+ * instance ends where the audit tables start. The revision archived through is recorded in the
+ * {@code audit-archive} row of analytics_watermarks, held for update while segments are written. A run whose
+ * archive ends before that revision, e.g. on a second instance or after the archive directory was lost,
+ * refuses to archive or prune instead of writing empty segments over revisions it never saw.
+ */
+@Component
+@Slf4j
+public class AuditArchiver {
+
+    private static final String LEASE = "audit-archive";
+    private static final long NO_TICKET = 0L;
+    private static final String HOT_PARTITION = "p_hot";
+    private static final List<String> AUDIT_TABLES = List.of("tickets_aud", "comments_aud", "revinfo");
+    private static final String SELECT_TICKETS = "select a.id, a.rev, r.revtstmp, a.revtype, a.ticket_title, " +
+            "a.ticket_description, a.posted_at, a.priority, a.ticket_type, a.status, a.closed_at, a.poster_id, " +
+            "a.assignee_id from tickets_aud a join revinfo r on r.rev = a.rev " +
+            "where a.rev >= ? and a.rev <= ? order by a.id, a.rev";
+    private static final String SELECT_COMMENTS = "select a.id, a.rev, r.revtstmp, a.revtype, a.comment_date, " +
+            "a.poster_name, a.value, coalesce(a.ticket_id, (select max(b.ticket_id) from comments_aud b " +
+            "where b.id = a.id)) as ticket_id from comments_aud a join revinfo r on r.rev = a.rev " +
+            "where a.rev >= ? and a.rev <= ? order by a.rev";
+    private static final String SELECT_PARTITIONS = "select partition_name, partition_description " +
+            "from information_schema.partitions where table_schema = database() and table_name = ? " +
+            "and partition_name is not null order by partition_ordinal_position";
+
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final Duration interval;
+    private final int segmentRevisions;
+    private final int deleteBatchSize;
+    private final AuditArchive archive;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archived;
+    private ScheduledExecutorService scheduler;
+
+    public AuditArchiver(@Value("${taskify.audit.archive.enabled:false}") boolean enabled,
+                         @Value("${taskify.audit.archive.max-age:365d}") Duration maxAge,
+                         @Value("${taskify.audit.archive.interval:1d}") Duration interval,
+                         @Value("${taskify.audit.archive.segment-revisions:100000}") int segmentRevisions,
+                         @Value("${taskify.audit.archive.delete-batch-size:10000}") int deleteBatchSize,
+                         AuditArchive archive,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.interval = interval;
+        this.segmentRevisions = segmentRevisions;
+        this.deleteBatchSize = deleteBatchSize;
+        this.archive = archive;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archived = meterRegistry.counter("taskify.audit.archive.revisions");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "audit-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public int archive() {
+        return archiveOlderThan(System.currentTimeMillis() - maxAge.toMillis());
+    }
+
+    public synchronized int archiveOlderThan(long cutoffMillis) {
+        int count = transactionTemplate.execute(status -> archiveSegments(cutoffMillis));
+        for (String table : AUDIT_TABLES) {
+            prune(table, archive.archivedThrough());
+        }
+        return count;
+    }
+
+    private int archiveSegments(long cutoffMillis) {
+        jdbcTemplate.update("insert into analytics_watermarks (name, last_id) values (?, 0) " +
+                "on duplicate key update last_id = last_id", LEASE);
+        Long recordedThrough = jdbcTemplate.queryForObject(
+                "select last_id from analytics_watermarks where name = ? for update", Long.class, LEASE);
+        if (recordedThrough > archive.archivedThrough()) {
+            throw new IllegalStateException("Audit revisions through " + recordedThrough + " were archived " +
+                    "elsewhere, the local archive ends at revision " + archive.archivedThrough());
+        }
+        Integer cutoffRev = jdbcTemplate.queryForObject("select coalesce(max(rev), 0) from revinfo where revtstmp < ?",
+                Integer.class, cutoffMillis);
+        int count = 0;
+        while (archive.archivedThrough() < cutoffRev) {
+            int firstRev = archive.archivedThrough() + 1;
+            int lastRev = (int) Math.min((long) firstRev + segmentRevisions - 1, cutoffRev);
+            SortedMap<Long, ArchiveBlock> blocks = readBlocks(firstRev, lastRev);
+            try {
+                archive.append(firstRev, lastRev, blocks);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int revisions = blocks.values().stream()
+                    .mapToInt(block -> block.getTickets().size() + block.getComments().size())
+                    .sum();
+            archived.increment(revisions);
+            count += revisions;
+        }
+        jdbcTemplate.update("update analytics_watermarks set last_id = greatest(last_id, ?) where name = ?",
+                archive.archivedThrough(), LEASE);
+        return count;
+    }
+
+    private void run() {
+        try {
+            int count = archive();
+            log.info("Archived {} audit revisions up to revision {}", count, archive.archivedThrough());
+        } catch (RuntimeException e) {
+            log.error("Audit archiving failed", e);
+        }
+    }
+
+    private SortedMap<Long, ArchiveBlock> readBlocks(int firstRev, int lastRev) {
+        SortedMap<Long, ArchiveBlock> blocks = new TreeMap<>();
+        jdbcTemplate.query(SELECT_TICKETS, (RowCallbackHandler) rs -> blocks
+                .computeIfAbsent(rs.getLong("id"), id -> new ArchiveBlock())
+                .getTickets()
+                .add(new ArchivedTicketRevision(rs.getInt("rev"), rs.getLong("revtstmp"), rs.getByte("revtype"),
+                        rs.getString("ticket_title"), rs.getString("ticket_description"),
+                        localDateTime(rs, "posted_at"), enumValue(Priority.class, rs.getString("priority")),
+                        enumValue(Type.class, rs.getString("ticket_type")),
+                        enumValue(Status.class, rs.getString("status")), localDateTime(rs, "closed_at"),
+                        nullableLong(rs, "poster_id"), nullableLong(rs, "assignee_id"))), firstRev, lastRev);
+        jdbcTemplate.query(SELECT_COMMENTS, (RowCallbackHandler) rs -> {
+            Long ticketId = nullableLong(rs, "ticket_id");
+            blocks.computeIfAbsent(ticketId == null ? NO_TICKET : ticketId, id -> new ArchiveBlock())
+                    .getComments()
+                    .add(new ArchivedCommentRevision(rs.getLong("id"), rs.getInt("rev"), rs.getLong("revtstmp"),
+                            rs.getByte("revtype"), localDateTime(rs, "comment_date"), rs.getString("poster_name"),
+                            rs.getBytes("value")));
+        }, firstRev, lastRev);
+        return blocks;
+    }
+
+    private void prune(String table, int throughRev) {
+        List<Map<String, Object>> partitions = jdbcTemplate.queryForList(SELECT_PARTITIONS, table);
+        List<String> archivedPartitions = new ArrayList<>();
+        for (Map<String, Object> partition : partitions) {
+            String bound = (String) partition.get("partition_description");
+            if (!"MAXVALUE".equals(bound) && Long.parseLong(bound) <= throughRev + 1L) {
+                archivedPartitions.add((String) partition.get("partition_name"));
+            }
+        }
+        if (!archivedPartitions.isEmpty()) {
+            jdbcTemplate.execute("alter table " + table + " drop partition " + String.join(", ", archivedPartitions));
+        }
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("delete from " + table + " where rev <= ? limit " + deleteBatchSize, throughRev);
+        } while (deleted == deleteBatchSize);
+        if (!partitions.isEmpty()) {
+            closeHotPartition(table, partitions);
+        }
+    }
+
+    private void closeHotPartition(String table, List<Map<String, Object>> partitions) {
+        long lowerBound = 0;
+        for (Map<String, Object> partition : partitions) {
+            String bound = (String) partition.get("partition_description");
+            if (!"MAXVALUE".equals(bound)) {
+                lowerBound = Math.max(lowerBound, Long.parseLong(bound));
+            }
+        }
+        Long maxRev = jdbcTemplate.queryForObject("select coalesce(max(rev), 0) from " + table, Long.class);
+        if (maxRev < lowerBound) {
+            return;
+        }
+        long upperBound = maxRev + 1;
+        jdbcTemplate.execute("alter table " + table + " reorganize partition " + HOT_PARTITION + " into (" +
+                "partition p_" + upperBound + " values less than (" + upperBound + "), " +
+                "partition " + HOT_PARTITION + " values less than maxvalue)");
+    }
+
+    private static LocalDateTime localDateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String name) {
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+}
@@ -0,0 +1,159 @@
+package com.hegetomi.taskify.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hegetomi.taskify.entity.Comment;
+import com.hegetomi.taskify.entity.Ticket;
+import com.hegetomi.taskify.entity.User;
+import com.hegetomi.taskify.util.BeforeCommitBatchListener;
+import com.hegetomi.taskify.util.CompressedTextConverter;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import org.hibernate.envers.RevisionType;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Replaces the Envers listeners in async audit mode. Changes of a transaction are collected per session and
+ * written to the audit outbox in one JDBC batch right before commit, the same point where Envers would write
+ * its revision, so the outbox commits or rolls back together with the change itself.
+ */
+@Component
+public class AuditChangeCapture extends BeforeCommitBatchListener<AuditChangeCapture.OutboxBatch> {
+
+    static final String TICKET = "TICKET";
+    static final String COMMENT = "COMMENT";
+    private static final String INSERT_OUTBOX = "insert into audit_outbox " +
+            "(tx_key, entity_type, entity_id, revision_type, revision_timestamp, payload) values (?, ?, ?, ?, ?, ?)";
+
+    private final boolean enabled;
+    private final AuditOutboxWriter writer;
+    private final ObjectMapper objectMapper;
+    private final CompressedTextConverter textConverter = new CompressedTextConverter();
+
+    public AuditChangeCapture(@Value("${taskify.audit.async.enabled:false}") boolean enabled,
+                              EntityManagerFactory entityManagerFactory,
+                              AuditOutboxWriter writer,
+                              ObjectMapper objectMapper) {
+        super(entityManagerFactory);
+        this.enabled = enabled;
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        capture(event.getSession(), event.getEntity(), RevisionType.ADD);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        capture(event.getSession(), event.getEntity(), RevisionType.MOD);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        capture(event.getSession(), event.getEntity(), RevisionType.DEL);
+    }
+
+    @Override
+    protected boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    protected OutboxBatch newBatch() {
+        return new OutboxBatch(UUID.randomUUID().toString(), System.currentTimeMillis(), new ArrayList<>());
+    }
+
+    @Override
+    protected void write(Connection connection, OutboxBatch batch) throws SQLException {
+        if (batch.changes.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_OUTBOX)) {
+            for (CapturedChange change : batch.changes) {
+                statement.setString(1, batch.txKey);
+                statement.setString(2, change.entityType);
+                statement.setLong(3, change.entityId);
+                statement.setByte(4, change.revisionType.getRepresentation());
+                statement.setLong(5, batch.timestamp);
+                statement.setString(6, change.payload);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @Override
+    protected void afterCompletion(boolean success) {
+        if (success) {
+            writer.signal();
+        }
+    }
+
+    private void capture(EventSource session, Object entity, RevisionType revisionType) {
+        CapturedChange change;
+        if (entity instanceof Ticket ticket) {
+            change = new CapturedChange(TICKET, ticket.getId(), revisionType,
+                    revisionType == RevisionType.DEL ? null : toJson(snapshot(ticket)));
+        } else if (entity instanceof Comment comment) {
+            change = new CapturedChange(COMMENT, comment.getId(), revisionType,
+                    revisionType == RevisionType.DEL ? null : toJson(snapshot(comment)));
+        } else {
+            return;
+        }
+        batch(session).changes.add(change);
+    }
+
+    private TicketAuditSnapshot snapshot(Ticket ticket) {
+        return new TicketAuditSnapshot(ticket.getTitle(), ticket.getDescription(), ticket.getPostedAt(),
+                ticket.getPriority(), ticket.getType(), ticket.getStatus(), ticket.getClosureDate(),
+                idOf(ticket.getPoster()), idOf(ticket.getAssignee()));
+    }
+
+    private CommentAuditSnapshot snapshot(Comment comment) {
+        return new CommentAuditSnapshot(comment.getCommentDate(), comment.getPosterName(),
+                textConverter.convertToDatabaseColumn(comment.getValue()),
+                comment.getTicket() == null ? null : comment.getTicket().getId());
+    }
+
+    private String toJson(Object snapshot) {
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Long idOf(User user) {
+        return user == null ? null : user.getId();
+    }
+
+    @AllArgsConstructor
+    static class OutboxBatch {
+        private final String txKey;
+        private final long timestamp;
+        private final List<CapturedChange> changes;
+    }
+
+    @AllArgsConstructor
+    private static class CapturedChange {
+        private final String entityType;
+        private final Long entityId;
+        private final RevisionType revisionType;
+        private final String payload;
+    }
+}
@@ -0,0 +1,243 @@
+package com.hegetomi.taskify.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hegetomi.taskify.entity.AuditOutboxEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves captured changes from the audit outbox into revinfo and the Envers audit tables. Commits only signal
+ * the writer, the rows themselves are always read back from the outbox in id order, so entries left behind by
+ * a crash or a full signal queue are picked up by the next drain and revisions keep their commit order.
+ * A batch never splits a transaction: rows of transactions cut off by the batch limit are fetched along with it.
+ * Each batch holds the {@code audit-outbox} row of analytics_watermarks for update, so when several instances
+ * run the writer they drain one after the other instead of writing the same entries twice.
+ */
+@Component
+@Slf4j
+public class AuditOutboxWriter {
+
+    private static final String LEASE = "audit-outbox";
+    private static final String OUTBOX_COLUMNS = "select id, tx_key, entity_type, entity_id, revision_type, " +
+            "revision_timestamp, payload from audit_outbox ";
+    private static final String SELECT_OUTBOX = OUTBOX_COLUMNS + "order by id limit ?";
+    private static final String INSERT_TICKET_AUD = "insert into tickets_aud (id, rev, revtype, ticket_title, " +
+            "ticket_description, posted_at, priority, ticket_type, status, closed_at, poster_id, assignee_id) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_COMMENT_AUD = "insert into comments_aud (id, rev, revtype, comment_date, " +
+            "poster_name, value, ticket_id) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pollMillis;
+    private final BlockingQueue<Boolean> signals;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Timer lag;
+    private final Counter written;
+    private volatile boolean running;
+    private Thread drainer;
+
+    public AuditOutboxWriter(@Value("${taskify.audit.async.enabled:false}") boolean enabled,
+                             @Value("${taskify.audit.async.batch-size:500}") int batchSize,
+                             @Value("${taskify.audit.async.poll-millis:1000}") long pollMillis,
+                             @Value("${taskify.audit.async.queue-capacity:1024}") int queueCapacity,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+        this.signals = new ArrayBlockingQueue<>(queueCapacity);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.lag = meterRegistry.timer("taskify.audit.async.lag");
+        this.written = meterRegistry.counter("taskify.audit.async.written");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        drainer = new Thread(this::run, "audit-outbox-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (drainer != null) {
+            drainer.interrupt();
+            drainer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public void signal() {
+        signals.offer(Boolean.TRUE);
+    }
+
+    public int drainOutbox() {
+        int total = 0;
+        int drained;
+        do {
+            drained = transactionTemplate.execute(status -> writeBatch());
+            total += drained;
+        } while (drained >= batchSize);
+        return total;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                drainOutbox();
+                signals.poll(pollMillis, TimeUnit.MILLISECONDS);
+                signals.clear();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Audit outbox drain failed", e);
+            }
+        }
+    }
+
+    private int writeBatch() {
+        jdbcTemplate.update("insert into analytics_watermarks (name, last_id) values (?, 0) " +
+                "on duplicate key update last_id = last_id", LEASE);
+        jdbcTemplate.queryForObject("select last_id from analytics_watermarks where name = ? for update",
+                Long.class, LEASE);
+        List<AuditOutboxEntry> entries = new ArrayList<>(
+                jdbcTemplate.query(SELECT_OUTBOX, AuditOutboxWriter::toEntry, batchSize));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        if (entries.size() == batchSize) {
+            completeTransactions(entries);
+        }
+        Map<String, Integer> revisions = new HashMap<>();
+        List<Object[]> ticketRows = new ArrayList<>();
+        List<Object[]> commentRows = new ArrayList<>();
+        List<Object[]> ids = new ArrayList<>(entries.size());
+        long now = System.currentTimeMillis();
+        for (AuditOutboxEntry entry : entries) {
+            int rev = revisions.computeIfAbsent(entry.getTxKey(), key -> insertRevision(entry.getRevisionTimestamp()));
+            if (AuditChangeCapture.TICKET.equals(entry.getEntityType())) {
+                ticketRows.add(ticketRow(entry, rev));
+            } else {
+                commentRows.add(commentRow(entry, rev));
+            }
+            ids.add(new Object[]{entry.getId()});
+            lag.record(now - entry.getRevisionTimestamp(), TimeUnit.MILLISECONDS);
+        }
+        if (!ticketRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TICKET_AUD, ticketRows);
+        }
+        if (!commentRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_COMMENT_AUD, commentRows);
+        }
+        jdbcTemplate.batchUpdate("delete from audit_outbox where id = ?", ids);
+        jdbcTemplate.update("update analytics_watermarks set last_id = ? where name = ?",
+                entries.get(entries.size() - 1).getId(), LEASE);
+        written.increment(entries.size());
+        return entries.size();
+    }
+
+    private void completeTransactions(List<AuditOutboxEntry> entries) {
+        List<Object> params = new ArrayList<>();
+        params.add(entries.get(entries.size() - 1).getId());
+        entries.stream().map(AuditOutboxEntry::getTxKey).distinct().forEach(params::add);
+        String placeholders = String.join(",", Collections.nCopies(params.size() - 1, "?"));
+        entries.addAll(jdbcTemplate.query(OUTBOX_COLUMNS + "where id > ? and tx_key in (" + placeholders + ") " +
+                "order by id", AuditOutboxWriter::toEntry, params.toArray()));
+    }
+
+    private static AuditOutboxEntry toEntry(ResultSet rs, int rowNum) throws SQLException {
+        return AuditOutboxEntry.builder()
+                .id(rs.getLong("id"))
+                .txKey(rs.getString("tx_key"))
+                .entityType(rs.getString("entity_type"))
+                .entityId(rs.getLong("entity_id"))
+                .revisionType(rs.getByte("revision_type"))
+                .revisionTimestamp(rs.getLong("revision_timestamp"))
+                .payload(rs.getString("payload"))
+                .build();
+    }
+
+    private int insertRevision(long timestamp) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("insert into revinfo (revtstmp) values (?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            statement.setLong(1, timestamp);
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().intValue();
+    }
+
+    private Object[] ticketRow(AuditOutboxEntry entry, int rev) {
+        TicketAuditSnapshot ticket = entry.getPayload() == null
+                ? new TicketAuditSnapshot()
+                : read(entry.getPayload(), TicketAuditSnapshot.class);
+        return new Object[]{entry.getEntityId(), rev, entry.getRevisionType(), ticket.getTitle(),
+                ticket.getDescription(), timestamp(ticket.getPostedAt()), name(ticket.getPriority()),
+                name(ticket.getType()), name(ticket.getStatus()), timestamp(ticket.getClosedAt()),
+                ticket.getPosterId(), ticket.getAssigneeId()};
+    }
+
+    private Object[] commentRow(AuditOutboxEntry entry, int rev) {
+        CommentAuditSnapshot comment = entry.getPayload() == null
+                ? new CommentAuditSnapshot()
+                : read(entry.getPayload(), CommentAuditSnapshot.class);
+        return new Object[]{entry.getEntityId(), rev, entry.getRevisionType(), timestamp(comment.getCommentDate()),
+                comment.getPosterName(), comment.getValue(), comment.getTicketId()};
+    }
+
+    private <T> T read(String payload, Class<T> type) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Timestamp timestamp(java.time.LocalDateTime time) {
+        return time == null ? null : Timestamp.valueOf(time);
+    }
+
+    private static String name(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+}
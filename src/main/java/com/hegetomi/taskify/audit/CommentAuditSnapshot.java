@@ -0,0 +1,20 @@
+package com.hegetomi.taskify.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentAuditSnapshot {
+
+    private LocalDateTime commentDate;
+    private String posterName;
+    private byte[] value;
+    private Long ticketId;
+}
@@ -0,0 +1,28 @@
+package com.hegetomi.taskify.audit;
+
+import com.hegetomi.taskify.enums.Priority;
+import com.hegetomi.taskify.enums.Status;
+import com.hegetomi.taskify.enums.Type;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketAuditSnapshot {
+
+    private String title;
+    private String description;
+    private LocalDateTime postedAt;
+    private Priority priority;
+    private Type type;
+    private Status status;
+    private LocalDateTime closedAt;
+    private Long posterId;
+    private Long assigneeId;
+}
@@ -0,0 +1,23 @@
+package com.hegetomi.taskify.command;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTicketCommand {
+
+    @NotEmpty
+    @Size(max = 500)
+    private List<@Valid NewTicketCommand> tickets;
+
+}
@@ -0,0 +1,25 @@
+package com.hegetomi.taskify.command;
+
+import com.hegetomi.taskify.enums.Status;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTicketUpdateCommand {
+
+    @NotEmpty
+    @Size(max = 500)
+    private List<Long> ticketIds;
+    private Long assigneeId;
+    private Status status;
+
+}
@@ -0,0 +1,18 @@
+package com.hegetomi.taskify.command;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshTokenCommand {
+
+    @NotBlank
+    private String refreshToken;
+
+}
@@ -1,6 +1,7 @@
 package com.hegetomi.taskify.controller;
 
 import com.hegetomi.taskify.command.LoginCommand;
+import com.hegetomi.taskify.command.RefreshTokenCommand;
 import com.hegetomi.taskify.command.RegisterCommand;
 import com.hegetomi.taskify.dto.JwtTokenDto;
 import com.hegetomi.taskify.dto.RegisterDto;
@@ -32,6 +33,15 @@ public class AuthController {
         return userService.login(loginCommand);
     }
 
+    @PostMapping("/refresh")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Exchanges a refresh token for a new JWT token and a rotated refresh token")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "401", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    public JwtTokenDto refresh(@RequestBody @Valid RefreshTokenCommand refreshTokenCommand) {
+        return userService.refresh(refreshTokenCommand);
+    }
+
     @PostMapping("/register")
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(summary = "Registration attempt with provided information")
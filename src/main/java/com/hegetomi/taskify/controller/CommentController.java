@@ -2,6 +2,7 @@ package com.hegetomi.taskify.controller;
 
 import com.hegetomi.taskify.command.CreateCommentCommand;
 import com.hegetomi.taskify.dto.CommentDto;
+import com.hegetomi.taskify.dto.CursorPage;
 import com.hegetomi.taskify.service.CommentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,18 +10,21 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/comment")
 @RequiredArgsConstructor
-@CrossOrigin("http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = TicketController.NEXT_CURSOR_HEADER)
 public class CommentController {
 
     private final CommentService commentService;
@@ -29,8 +33,21 @@ public class CommentController {
     @PreAuthorize("hasAnyAuthority('ROLE_EMPLOYEE', 'ROLE_USER') " +
             "&& (@ticketOwnershipService.isPostedByUser(#id,principal) " +
             "|| @ticketOwnershipService.isAssignedToUser(#id,principal))")
-    public List<CommentDto> getCommentsForTicket(@PathVariable Long id) {
-        return commentService.getCommentsForTicket(id);
+    @Operation(summary = "Returns a page of a ticket's comments oldest first, the next page cursor is in the X-Next-Cursor header")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "403", content = @Content)
+    public ResponseEntity<List<CommentDto>> getCommentsForTicket(@PathVariable Long id,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false)
+                                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+                                                                 @RequestParam(required = false) Integer size) {
+        CursorPage<CommentDto> page = commentService.getCommentsForTicket(id, cursor, since, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(TicketController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @PostMapping("/forTicket/{id}")
@@ -1,32 +1,52 @@
 package com.hegetomi.taskify.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hegetomi.taskify.command.BatchTicketCommand;
+import com.hegetomi.taskify.command.BatchTicketUpdateCommand;
 import com.hegetomi.taskify.command.EditAssignedTicketCommand;
 import com.hegetomi.taskify.command.EditSubmittedTicketCommand;
 import com.hegetomi.taskify.command.NewTicketCommand;
+import com.hegetomi.taskify.dto.CursorPage;
+import com.hegetomi.taskify.dto.SerializedTicketDetail;
 import com.hegetomi.taskify.dto.TicketDto;
 import com.hegetomi.taskify.dto.TicketHistoryDto;
+import com.hegetomi.taskify.enums.Status;
 import com.hegetomi.taskify.service.TicketService;
+import com.hegetomi.taskify.util.VersionETag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.security.Principal;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/ticket")
 @RequiredArgsConstructor
-@CrossOrigin("http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = {TicketController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 public class TicketController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON = "application/x-ndjson";
+
     private final TicketService ticketService;
+    private final ObjectMapper objectMapper;
 
     @PreAuthorize("hasAnyAuthority('ROLE_EMPLOYEE','ROLE_USER')")
     @PostMapping
@@ -40,14 +60,57 @@ public class TicketController {
         return ticketService.createNewTicket(ticketCommand, principal);
     }
 
+    @PreAuthorize("hasAnyAuthority('ROLE_EMPLOYEE','ROLE_USER')")
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Creates up to 500 tickets in one transaction if role is employee or user")
+    @ApiResponse(responseCode = "201")
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "403", content = @Content)
+    public List<TicketDto> createNewTickets(@RequestBody @Valid BatchTicketCommand batchCommand,
+                                            Principal principal) {
+        return ticketService.createNewTickets(batchCommand, principal);
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_EMPLOYEE') && (#batchCommand.status == null && #batchCommand.assigneeId == principal.id " +
+            "? @ticketOwnershipService.areAvailableToAssign(#batchCommand.ticketIds,principal) " +
+            ": @ticketOwnershipService.areAssignedToUser(#batchCommand.ticketIds,principal))")
+    @PutMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Assigns and/or transitions the status of up to 500 tickets in one transaction, " +
+            "unassigned tickets can only be taken by the caller, anything else requires every ticket to be assigned to the caller")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "403", content = @Content)
+    public List<TicketDto> updateTickets(@RequestBody @Valid BatchTicketUpdateCommand batchCommand) {
+        return ticketService.updateTickets(batchCommand);
+    }
+
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_EMPLOYEE','ROLE_USER')")
     @ResponseStatus(HttpStatus.OK)
-    @Operation(summary = "Returns a user's submitted tickets as a list")
+    @Operation(summary = "Returns a page of a user's submitted tickets filtered by status, the next page cursor is in the X-Next-Cursor header")
     @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
     @ApiResponse(responseCode = "403", content = @Content)
-    public List<TicketDto> getMySubmissions(Principal principal, @RequestParam(defaultValue = "false") boolean full) {
-        return ticketService.getSubmittedTickets(principal.getName(), full);
+    public ResponseEntity<List<TicketDto>> getMySubmissions(Principal principal, @RequestParam(defaultValue = "false") boolean full,
+                                                            @RequestParam(required = false) List<Status> status,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer size) {
+        return toResponse(ticketService.getSubmittedTickets(principal.getName(), full, status, cursor, size));
+    }
+
+    @GetMapping(produces = NDJSON)
+    @PreAuthorize("hasAnyAuthority('ROLE_EMPLOYEE','ROLE_USER')")
+    @Operation(summary = "Streams all of a user's submitted tickets as newline delimited JSON")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "403", content = @Content)
+    public ResponseEntity<StreamingResponseBody> exportMySubmissions(Principal principal,
+                                                                     @RequestParam(defaultValue = "false") boolean full,
+                                                                     @RequestParam(required = false) List<Status> status) {
+        String username = principal.getName();
+        return ndjson(sink -> ticketService.exportSubmittedTickets(username, full, status, sink));
     }
 
 
@@ -55,11 +118,12 @@ public class TicketController {
     @PreAuthorize("hasAnyAuthority('ROLE_EMPLOYEE','ROLE_USER') && @ticketOwnershipService.isPostedByUser(#id,principal)")
     @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Returns a user's submitted ticket by id")
-    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = TicketDto.class))})
     @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "304", content = @Content)
     @ApiResponse(responseCode = "403", content = @Content)
-    public TicketDto getMySubmissionById(Principal principal, @PathVariable Long id) {
-        return ticketService.getTicketDetail(id);
+    public ResponseEntity<byte[]> getMySubmissionById(Principal principal, @PathVariable Long id) {
+        return withETag(ticketService.getSerializedTicketDetail(id));
     }
 
     @PutMapping("/{id}")
@@ -68,31 +132,51 @@ public class TicketController {
     @Operation(summary = "Edits a user's submitted ticket by id")
     @ApiResponse(responseCode = "200")
     @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "412", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
     @ApiResponse(responseCode = "403", content = @Content)
-    public TicketDto editMySubmission(@PathVariable Long id,
-                                      @RequestBody EditSubmittedTicketCommand ticketCommand) {
-        return ticketService.editSubmittedTicketDetail(id, ticketCommand);
+    public ResponseEntity<TicketDto> editMySubmission(@PathVariable Long id,
+                                                      @RequestBody EditSubmittedTicketCommand ticketCommand,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(ticketService.editSubmittedTicketDetail(id, VersionETag.parse(ifMatch), ticketCommand));
     }
 
     @GetMapping("/assigned")
     @PreAuthorize("hasAuthority('ROLE_EMPLOYEE')")
     @ResponseStatus(HttpStatus.OK)
-    @Operation(summary = "Returns a user's assigned tickets as a list")
+    @Operation(summary = "Returns a page of a user's assigned tickets filtered by status, the next page cursor is in the X-Next-Cursor header")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "403", content = @Content)
+    public ResponseEntity<List<TicketDto>> getAssignedTickets(Principal principal, @RequestParam(defaultValue = "false") boolean full,
+                                                              @RequestParam(required = false) List<Status> status,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return toResponse(ticketService.getAssignedTickets(principal.getName(), full, status, cursor, size));
+    }
+
+    @GetMapping(path = "/assigned", produces = NDJSON)
+    @PreAuthorize("hasAuthority('ROLE_EMPLOYEE')")
+    @Operation(summary = "Streams all of a user's assigned tickets as newline delimited JSON")
     @ApiResponse(responseCode = "200")
     @ApiResponse(responseCode = "403", content = @Content)
-    public List<TicketDto> getAssignedTickets(Principal principal, @RequestParam(defaultValue = "false") boolean full) {
-        return ticketService.getAssignedTickets(principal.getName(),full);
+    public ResponseEntity<StreamingResponseBody> exportAssignedTickets(Principal principal,
+                                                                       @RequestParam(defaultValue = "false") boolean full,
+                                                                       @RequestParam(required = false) List<Status> status) {
+        String username = principal.getName();
+        return ndjson(sink -> ticketService.exportAssignedTickets(username, full, status, sink));
     }
 
     @GetMapping("/assigned/{id}")
     @PreAuthorize("hasAuthority('ROLE_EMPLOYEE') && @ticketOwnershipService.isAssignedToUser(#id,principal)")
     @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Returns a user's assigned ticket by id")
-    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = TicketDto.class))})
     @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "304", content = @Content)
     @ApiResponse(responseCode = "403", content = @Content)
-    public TicketDto getAssignedTicketById(Principal principal, @PathVariable Long id) {
-        return ticketService.getTicketDetail(id);
+    public ResponseEntity<byte[]> getAssignedTicketById(Principal principal, @PathVariable Long id) {
+        return withETag(ticketService.getSerializedTicketDetail(id));
     }
 
     @PutMapping("/assigned/{id}")
@@ -101,21 +185,47 @@ public class TicketController {
     @Operation(summary = "Edits a user's assigned ticket by id")
     @ApiResponse(responseCode = "200")
     @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "412", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
     @ApiResponse(responseCode = "403", content = @Content)
-    public TicketDto editAssignedTicket(
+    public ResponseEntity<TicketDto> editAssignedTicket(
             @PathVariable Long id,
-            @RequestBody EditAssignedTicketCommand ticketCommand) {
-        return ticketService.editAssignedTicketDetail(id, ticketCommand);
+            @RequestBody EditAssignedTicketCommand ticketCommand,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(ticketService.editAssignedTicketDetail(id, VersionETag.parse(ifMatch), ticketCommand));
     }
 
     @GetMapping("/unassigned")
     @PreAuthorize("hasAnyAuthority('ROLE_EMPLOYEE', 'ROLE_MANAGER')")
     @ResponseStatus(HttpStatus.OK)
-    @Operation(summary = "Returns unassigned tickets as a list")
+    @Operation(summary = "Returns a page of unassigned tickets, the next page cursor is in the X-Next-Cursor header")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "403", content = @Content)
+    public ResponseEntity<List<TicketDto>> getUnassignedTickets(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer size) {
+        return toResponse(ticketService.getUnassignedTickets(cursor, size));
+    }
+
+    @GetMapping(path = "/unassigned", produces = NDJSON)
+    @PreAuthorize("hasAnyAuthority('ROLE_EMPLOYEE', 'ROLE_MANAGER')")
+    @Operation(summary = "Streams all unassigned tickets as newline delimited JSON")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "403", content = @Content)
+    public ResponseEntity<StreamingResponseBody> exportUnassignedTickets() {
+        return ndjson(ticketService::exportUnassignedTickets);
+    }
+
+    @PostMapping("/claim")
+    @PreAuthorize("hasAuthority('ROLE_EMPLOYEE')")
+    @Operation(summary = "Assigns the highest priority, oldest unassigned ticket to the caller")
     @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "204", content = @Content)
     @ApiResponse(responseCode = "403", content = @Content)
-    public List<TicketDto> getUnassignedTickets() {
-        return ticketService.getUnassignedTickets();
+    public ResponseEntity<TicketDto> claimNextTicket(Principal principal) {
+        return ticketService.claimNextTicket(principal.getName())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
     }
 
     @PutMapping("/assign/{ticketId}")
@@ -133,11 +243,53 @@ public class TicketController {
     @GetMapping("/history/{id}")
     @PreAuthorize("hasAuthority('ROLE_EMPLOYEE') && @ticketOwnershipService.isAssignedToUser(#id,principal)")
     @ResponseStatus(HttpStatus.OK)
-    @Operation(summary = "Returns every changed state of a ticket by id")
+    @Operation(summary = "Returns a page of a ticket's revisions as field changes, the next page cursor is in the X-Next-Cursor header")
     @ApiResponse(responseCode = "200")
-    @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
     @ApiResponse(responseCode = "403", content = @Content)
-    public List<TicketHistoryDto> findTicketHistoryById(@PathVariable Long id){
-        return ticketService.findTicketHistoryById(id);
+    public ResponseEntity<List<TicketHistoryDto>> findTicketHistoryById(@PathVariable Long id,
+                                                                        @RequestParam(required = false) Integer cursor,
+                                                                        @RequestParam(required = false) Integer size) {
+        return toResponse(ticketService.findTicketHistoryById(id, cursor, size));
+    }
+
+    private static ResponseEntity<TicketDto> withETag(TicketDto ticket) {
+        return ResponseEntity.ok().eTag(VersionETag.format(ticket.getVersion())).body(ticket);
+    }
+
+    private static ResponseEntity<byte[]> withETag(SerializedTicketDetail ticket) {
+        return ResponseEntity.ok()
+                .eTag(VersionETag.format(ticket.getVersion()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ticket.getJson());
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<TicketDto>> export) {
+        ObjectWriter writer = objectMapper.writerFor(TicketDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        StreamingResponseBody body = out -> {
+            try {
+                export.accept(dto -> {
+                    try {
+                        writer.writeValue(out, dto);
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private static <T> ResponseEntity<List<T>> toResponse(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 }
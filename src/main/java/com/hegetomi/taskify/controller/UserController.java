@@ -3,8 +3,12 @@ package com.hegetomi.taskify.controller;
 import com.hegetomi.taskify.command.EditUserRightsCommand;
 import com.hegetomi.taskify.command.UpdateUserPasswordCommand;
 import com.hegetomi.taskify.dto.UserDto;
+import com.hegetomi.taskify.dto.manager.CumulativeFlowDto;
+import com.hegetomi.taskify.dto.manager.StatusTimeDto;
 import com.hegetomi.taskify.dto.manager.TicketAverageSolveTimeDto;
 import com.hegetomi.taskify.dto.manager.TicketSolveRateDto;
+import com.hegetomi.taskify.dto.manager.TicketThroughputDto;
+import com.hegetomi.taskify.enums.RollupGranularity;
 import com.hegetomi.taskify.service.TaskifyUserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,12 +17,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -81,10 +87,49 @@ public class UserController {
         return userService.getTicketStatsByUser(open);
     }
 
+    @GetMapping("/throughput")
+    @PreAuthorize("hasAuthority('ROLE_MANAGER')")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Retrieves opened/closed tickets per day or week by employee, priority and type")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "403", content = @Content)
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    public List<TicketThroughputDto> getTicketThroughput(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                         @RequestParam(defaultValue = "DAY") RollupGranularity granularity) {
+        return userService.getThroughput(from, to, granularity);
+    }
+
+    @GetMapping("/cycle-time")
+    @PreAuthorize("hasAuthority('ROLE_MANAGER')")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Retrieves time spent in each status for one employee or, without assigneeId, the whole team")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "403", content = @Content)
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    public List<StatusTimeDto> getTimeInStatus(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                               @RequestParam(required = false) Long assigneeId) {
+        return userService.getTimeInStatus(from, to, assigneeId);
+    }
+
+    @GetMapping("/flow")
+    @PreAuthorize("hasAuthority('ROLE_MANAGER')")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Retrieves daily ticket counts per status for one employee or, without assigneeId, the whole team")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "403", content = @Content)
+    @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ProblemDetail.class))})
+    public List<CumulativeFlowDto> getCumulativeFlow(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                     @RequestParam(required = false) Long assigneeId) {
+        return userService.getCumulativeFlow(from, to, assigneeId);
+    }
+
     @GetMapping("/average")
     @PreAuthorize("hasAuthority('ROLE_MANAGER')")
     @ResponseStatus(HttpStatus.OK)
-    @Operation(summary = "Retrieves an average ticket solve time by employee")
+    @Operation(summary = "Retrieves average and percentile ticket solve times by employee")
     @ApiResponse(responseCode = "201")
     @ApiResponse(responseCode = "403", content = @Content)
     public List<TicketAverageSolveTimeDto> getTicketAverageTimeToSolve() {
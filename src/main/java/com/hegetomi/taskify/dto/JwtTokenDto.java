@@ -11,4 +11,5 @@ import lombok.Setter;
 @NoArgsConstructor
 public class JwtTokenDto {
     private String jwt;
+    private String refreshToken;
 }
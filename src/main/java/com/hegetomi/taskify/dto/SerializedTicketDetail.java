@@ -0,0 +1,11 @@
+package com.hegetomi.taskify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SerializedTicketDetail {
+    private final Long version;
+    private final byte[] json;
+}
@@ -28,5 +28,7 @@ public class TicketDto {
     private UserDto assignee;
     private List<CommentDto> comments;
     private LocalDateTime closedAt;
+    private Long version;
+    private Long commentCount;
 
 }
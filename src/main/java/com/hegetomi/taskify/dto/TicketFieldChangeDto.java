@@ -0,0 +1,17 @@
+package com.hegetomi.taskify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketFieldChangeDto {
+
+    private String field;
+    private Object from;
+    private Object to;
+}
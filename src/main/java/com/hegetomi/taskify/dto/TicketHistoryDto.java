@@ -4,8 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.envers.RevisionType;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Getter
 @Setter
@@ -13,6 +15,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class TicketHistoryDto {
 
+    private Integer revision;
     private LocalDateTime revisionDate;
-    private TicketDto ticketDto;
+    private RevisionType revisionType;
+    private List<TicketFieldChangeDto> changes;
 }
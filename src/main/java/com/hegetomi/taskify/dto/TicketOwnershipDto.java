@@ -0,0 +1,7 @@
+package com.hegetomi.taskify.dto;
+
+public interface TicketOwnershipDto {
+    Long getId();
+    Long getPosterId();
+    Long getAssigneeId();
+}
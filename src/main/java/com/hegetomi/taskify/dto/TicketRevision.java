@@ -0,0 +1,22 @@
+package com.hegetomi.taskify.dto;
+
+import com.hegetomi.taskify.enums.Priority;
+import com.hegetomi.taskify.enums.Status;
+import com.hegetomi.taskify.enums.Type;
+
+import java.time.LocalDateTime;
+
+public interface TicketRevision {
+    Integer getRev();
+    Long getRevisionTimestamp();
+    Byte getRevisionType();
+    String getTitle();
+    String getDescription();
+    LocalDateTime getPostedAt();
+    Priority getPriority();
+    Type getType();
+    Status getStatus();
+    LocalDateTime getClosedAt();
+    Long getPosterId();
+    Long getAssigneeId();
+}
@@ -0,0 +1,9 @@
+package com.hegetomi.taskify.dto;
+
+import java.time.LocalDateTime;
+
+public interface TicketSolveTimeDto {
+    Long getAssigneeId();
+    LocalDateTime getPostedAt();
+    LocalDateTime getClosedAt();
+}
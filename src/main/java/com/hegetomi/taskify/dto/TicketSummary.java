@@ -0,0 +1,23 @@
+package com.hegetomi.taskify.dto;
+
+import com.hegetomi.taskify.enums.Priority;
+import com.hegetomi.taskify.enums.Status;
+import com.hegetomi.taskify.enums.Type;
+
+import java.time.LocalDateTime;
+
+public interface TicketSummary {
+    Long getId();
+    String getTitle();
+    String getDescription();
+    LocalDateTime getPostedAt();
+    Priority getPriority();
+    Type getType();
+    Status getStatus();
+    LocalDateTime getClosureDate();
+    Long getPosterId();
+    String getPosterName();
+    Long getAssigneeId();
+    String getAssigneeName();
+    Long getVersion();
+}
@@ -0,0 +1,8 @@
+package com.hegetomi.taskify.dto;
+
+import com.hegetomi.taskify.enums.UserRole;
+
+public interface UserRoleDto {
+    Long getUserId();
+    UserRole getRole();
+}
@@ -0,0 +1,6 @@
+package com.hegetomi.taskify.dto;
+
+public interface UserSecurityVersionDto {
+    Long getId();
+    int getSecurityVersion();
+}
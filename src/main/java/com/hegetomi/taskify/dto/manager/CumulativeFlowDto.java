@@ -0,0 +1,19 @@
+package com.hegetomi.taskify.dto.manager;
+
+import com.hegetomi.taskify.enums.Status;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CumulativeFlowDto {
+    LocalDate day;
+    Status status;
+    long count;
+}
@@ -0,0 +1,6 @@
+package com.hegetomi.taskify.dto.manager;
+
+public interface SolveTimeHistogramRow {
+    String getName();
+    byte[] getSketch();
+}
@@ -0,0 +1,11 @@
+package com.hegetomi.taskify.dto.manager;
+
+import com.hegetomi.taskify.enums.Status;
+
+import java.time.LocalDate;
+
+public interface StatusFlowRow {
+    LocalDate getDay();
+    Status getStatus();
+    Long getCount();
+}
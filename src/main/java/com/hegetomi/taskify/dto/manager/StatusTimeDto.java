@@ -0,0 +1,18 @@
+package com.hegetomi.taskify.dto.manager;
+
+import com.hegetomi.taskify.enums.Status;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatusTimeDto {
+    Status status;
+    long tickets;
+    long totalMinutes;
+    double averageMinutes;
+}
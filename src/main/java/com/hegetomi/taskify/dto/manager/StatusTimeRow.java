@@ -0,0 +1,9 @@
+package com.hegetomi.taskify.dto.manager;
+
+import com.hegetomi.taskify.enums.Status;
+
+public interface StatusTimeRow {
+    Status getStatus();
+    Long getTickets();
+    Long getMinutes();
+}
@@ -3,4 +3,10 @@ package com.hegetomi.taskify.dto.manager;
 public interface TicketAverageSolveTimeDto {
     String getName();
     Double getDays();
+    long getCount();
+    long getMinMinutes();
+    long getMaxMinutes();
+    long getP50Minutes();
+    long getP90Minutes();
+    long getP99Minutes();
 }
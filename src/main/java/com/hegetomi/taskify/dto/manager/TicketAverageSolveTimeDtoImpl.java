@@ -12,4 +12,10 @@ import lombok.Setter;
 public class TicketAverageSolveTimeDtoImpl implements TicketAverageSolveTimeDto {
     String name;
     Double days;
+    long count;
+    long minMinutes;
+    long maxMinutes;
+    long p50Minutes;
+    long p90Minutes;
+    long p99Minutes;
 }
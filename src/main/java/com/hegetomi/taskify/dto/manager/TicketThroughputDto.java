@@ -0,0 +1,24 @@
+package com.hegetomi.taskify.dto.manager;
+
+import com.hegetomi.taskify.enums.Priority;
+import com.hegetomi.taskify.enums.Type;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TicketThroughputDto {
+    LocalDate bucket;
+    String name;
+    Priority priority;
+    Type type;
+    long opened;
+    long closed;
+    long solveMinutes;
+}
@@ -0,0 +1,22 @@
+package com.hegetomi.taskify.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "analytics_watermarks")
+public class AnalyticsWatermark {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+}
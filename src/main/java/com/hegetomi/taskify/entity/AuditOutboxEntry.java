@@ -0,0 +1,32 @@
+package com.hegetomi.taskify.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "audit_outbox")
+public class AuditOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tx_key", length = 36, nullable = false)
+    private String txKey;
+    @Column(name = "entity_type", length = 20, nullable = false)
+    private String entityType;
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+    @Column(name = "revision_type", nullable = false)
+    private Byte revisionType;
+    @Column(name = "revision_timestamp", nullable = false)
+    private Long revisionTimestamp;
+    @Column(name = "payload", columnDefinition = "longtext")
+    private String payload;
+
+}
@@ -1,5 +1,7 @@
 package com.hegetomi.taskify.entity;
 
+import com.hegetomi.taskify.service.TicketDetailCacheListener;
+import com.hegetomi.taskify.util.CompressedTextConverter;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.envers.Audited;
@@ -14,12 +16,16 @@ import java.time.LocalDateTime;
 @Builder
 @Table(name = "comments")
 @Audited
+@EntityListeners(TicketDetailCacheListener.class)
 public class Comment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_seq", allocationSize = 50)
     private Long id;
 
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "value", columnDefinition = "longblob")
     private String value;
     @Column(name = "poster_name")
     private String posterName;
@@ -0,0 +1,28 @@
+package com.hegetomi.taskify.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", length = 64, unique = true)
+    private String tokenHash;
+    @Column(name = "user_id")
+    private Long userId;
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+}
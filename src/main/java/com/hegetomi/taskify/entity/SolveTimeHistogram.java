@@ -0,0 +1,22 @@
+package com.hegetomi.taskify.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "solve_time_histograms")
+public class SolveTimeHistogram {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "sketch", nullable = false, columnDefinition = "longblob")
+    private byte[] sketch;
+
+}
@@ -0,0 +1,25 @@
+package com.hegetomi.taskify.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "status_flows")
+public class StatusFlow {
+
+    @EmbeddedId
+    private StatusFlowId id;
+
+    @Column(name = "entered", nullable = false)
+    private long entered;
+    @Column(name = "exited", nullable = false)
+    private long exited;
+    @Column(name = "exited_minutes", nullable = false)
+    private long exitedMinutes;
+
+}
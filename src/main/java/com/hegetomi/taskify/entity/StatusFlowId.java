@@ -0,0 +1,33 @@
+package com.hegetomi.taskify.entity;
+
+import com.hegetomi.taskify.enums.Status;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class StatusFlowId implements Serializable {
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+    @Column(name = "assignee_id", nullable = false)
+    private Long assigneeId;
+    @Enumerated(value = EnumType.STRING)
+    @Column(name = "status", length = 10, nullable = false)
+    private Status status;
+
+}
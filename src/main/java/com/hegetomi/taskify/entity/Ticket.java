@@ -3,12 +3,15 @@ package com.hegetomi.taskify.entity;
 import com.hegetomi.taskify.enums.Priority;
 import com.hegetomi.taskify.enums.Status;
 import com.hegetomi.taskify.enums.Type;
+import com.hegetomi.taskify.security.TicketOwnershipListener;
+import com.hegetomi.taskify.service.TicketDetailCacheListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.envers.Audited;
+import org.hibernate.envers.NotAudited;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -23,17 +26,19 @@ import static org.hibernate.envers.RelationTargetAuditMode.NOT_AUDITED;
 @Entity
 @Table(name = "tickets")
 @Audited
+@EntityListeners({TicketOwnershipListener.class, TicketDetailCacheListener.class})
 public class Ticket {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tickets_seq")
+    @SequenceGenerator(name = "tickets_seq", sequenceName = "tickets_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "ticket_title", length = 75)
     private String title;
     @Column(name = "ticket_description", length = 250)
     private String description;
-    @Column(name = "posted_at")
+    @Column(name = "posted_at", nullable = false)
     private LocalDateTime postedAt;
 
     @ManyToOne
@@ -58,6 +63,9 @@ public class Ticket {
     private Status status;
     @Column(name = "closed_at")
     private LocalDateTime closureDate;
+    @Version
+    @NotAudited
+    private Long version;
 
 
     public Ticket(String title, String description, User poster, User assignee, Priority priority, Type type, Status status) {
@@ -70,4 +78,11 @@ public class Ticket {
         this.status = status;
     }
 
+    @PrePersist
+    void defaultPostedAt() {
+        if (postedAt == null) {
+            postedAt = LocalDateTime.now();
+        }
+    }
+
 }
@@ -0,0 +1,24 @@
+package com.hegetomi.taskify.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "ticket_counters")
+public class TicketCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "open_count", nullable = false)
+    private long openCount;
+    @Column(name = "closed_count", nullable = false)
+    private long closedCount;
+
+}
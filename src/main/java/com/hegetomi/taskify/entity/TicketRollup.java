@@ -0,0 +1,25 @@
+package com.hegetomi.taskify.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "ticket_rollups")
+public class TicketRollup {
+
+    @EmbeddedId
+    private TicketRollupId id;
+
+    @Column(name = "opened", nullable = false)
+    private long opened;
+    @Column(name = "closed", nullable = false)
+    private long closed;
+    @Column(name = "solve_minutes", nullable = false)
+    private long solveMinutes;
+
+}
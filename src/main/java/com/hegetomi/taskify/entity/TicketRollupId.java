@@ -0,0 +1,31 @@
+package com.hegetomi.taskify.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class TicketRollupId implements Serializable {
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+    @Column(name = "assignee_id", nullable = false)
+    private Long assigneeId;
+    @Column(name = "priority", length = 20, nullable = false)
+    private String priority;
+    @Column(name = "ticket_type", length = 20, nullable = false)
+    private String type;
+
+}
@@ -0,0 +1,30 @@
+package com.hegetomi.taskify.entity;
+
+import com.hegetomi.taskify.enums.Status;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "ticket_status_states")
+public class TicketStatusState {
+
+    @Id
+    @Column(name = "ticket_id")
+    private Long ticketId;
+
+    @Column(name = "assignee_id", nullable = false)
+    private Long assigneeId;
+    @Enumerated(value = EnumType.STRING)
+    @Column(name = "status", length = 10, nullable = false)
+    private Status status;
+    @Column(name = "entered_at", nullable = false)
+    private LocalDateTime enteredAt;
+
+}
@@ -0,0 +1,41 @@
+package com.hegetomi.taskify.entity;
+
+import com.hegetomi.taskify.enums.Status;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "ticket_status_transitions")
+public class TicketStatusTransition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+    @Column(name = "assignee_id")
+    private Long assigneeId;
+    @Enumerated(value = EnumType.STRING)
+    @Column(name = "from_status", length = 10)
+    private Status fromStatus;
+    @Enumerated(value = EnumType.STRING)
+    @Column(name = "to_status", length = 10)
+    private Status toStatus;
+    @Column(name = "transitioned_at", nullable = false)
+    private LocalDateTime transitionedAt;
+    @Column(name = "recorded_at", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "datetime(6) default current_timestamp(6)")
+    private LocalDateTime recordedAt;
+    @Column(name = "processed", nullable = false, insertable = false,
+            columnDefinition = "boolean default false")
+    private boolean processed;
+
+}
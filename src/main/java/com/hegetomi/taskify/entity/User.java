@@ -30,6 +30,8 @@ public class User implements UserDetails {
     private String name;
     @Column(name = "user_password")
     private String password;
+    @Column(name = "security_version")
+    private int securityVersion;
     @Enumerated(value = EnumType.STRING)
     @ElementCollection(fetch = FetchType.EAGER)
     private List<UserRole> roles = new ArrayList<>();
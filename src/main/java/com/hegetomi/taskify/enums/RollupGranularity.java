@@ -0,0 +1,5 @@
+package com.hegetomi.taskify.enums;
+
+public enum RollupGranularity {
+    DAY, WEEK
+}
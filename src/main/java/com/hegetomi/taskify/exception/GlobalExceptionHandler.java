@@ -1,7 +1,9 @@
 package com.hegetomi.taskify.exception;
 
+import jakarta.persistence.OptimisticLockException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -43,16 +45,59 @@ public class GlobalExceptionHandler {
         detail.setType(URI.create("taskify/authentication-error"));
         return detail;
     }
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ProblemDetail handleInvalidRefreshTokenException(InvalidRefreshTokenException irte) {
+        ProblemDetail detail = ProblemDetail.forStatusAndDetail(HttpStatus.UNAUTHORIZED, irte.getMessage());
+        detail.setType(URI.create("taskify/invalid-refresh-token"));
+        return detail;
+    }
     @ExceptionHandler(TicketNotFoundException.class)
     public ProblemDetail handleTicketNotFoundException(TicketNotFoundException tnfe) {
         ProblemDetail detail = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, tnfe.getMessage());
         detail.setType(URI.create("taskify/ticket-not-found"));
         return detail;
     }
+    @ExceptionHandler(InvalidCursorException.class)
+    public ProblemDetail handleInvalidCursorException(InvalidCursorException ice) {
+        ProblemDetail detail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ice.getMessage());
+        detail.setType(URI.create("taskify/invalid-cursor"));
+        return detail;
+    }
+    @ExceptionHandler(InvalidETagException.class)
+    public ProblemDetail handleInvalidETagException(InvalidETagException iee) {
+        ProblemDetail detail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, iee.getMessage());
+        detail.setType(URI.create("taskify/invalid-etag"));
+        return detail;
+    }
+    @ExceptionHandler(TicketVersionMismatchException.class)
+    public ProblemDetail handleTicketVersionMismatchException(TicketVersionMismatchException tvme) {
+        ProblemDetail detail = ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED, tvme.getMessage());
+        detail.setType(URI.create("taskify/version-mismatch"));
+        return detail;
+    }
+    @ExceptionHandler({ObjectOptimisticLockingFailureException.class, OptimisticLockException.class})
+    public ProblemDetail handleOptimisticLockingFailure(RuntimeException re) {
+        ProblemDetail detail = ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED,
+                "Ticket has been modified concurrently");
+        detail.setType(URI.create("taskify/version-mismatch"));
+        return detail;
+    }
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ProblemDetail handleTypeMismatchException(MethodArgumentTypeMismatchException tnfe) {
         ProblemDetail detail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, tnfe.getMessage());
         detail.setType(URI.create("taskify/type-mismatch"));
         return detail;
     }
-}
\ No newline at end of file
+    @ExceptionHandler(ServerBusyException.class)
+    public ProblemDetail handleServerBusyException(ServerBusyException sbe) {
+        ProblemDetail detail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, sbe.getMessage());
+        detail.setType(URI.create("taskify/server-busy"));
+        return detail;
+    }
+    @ExceptionHandler(InvalidDateRangeException.class)
+    public ProblemDetail handleInvalidDateRangeException(InvalidDateRangeException idre) {
+        ProblemDetail detail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, idre.getMessage());
+        detail.setType(URI.create("taskify/invalid-date-range"));
+        return detail;
+    }
+}
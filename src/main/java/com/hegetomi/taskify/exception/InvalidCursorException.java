@@ -0,0 +1,7 @@
+package com.hegetomi.taskify.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException() {
+        super("Invalid page cursor");
+    }
+}
@@ -0,0 +1,7 @@
+package com.hegetomi.taskify.exception;
+
+public class InvalidDateRangeException extends RuntimeException {
+    public InvalidDateRangeException() {
+        super("Invalid date range");
+    }
+}
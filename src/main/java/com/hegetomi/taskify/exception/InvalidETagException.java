@@ -0,0 +1,7 @@
+package com.hegetomi.taskify.exception;
+
+public class InvalidETagException extends RuntimeException {
+    public InvalidETagException() {
+        super("Invalid entity tag in If-Match header");
+    }
+}
@@ -0,0 +1,7 @@
+package com.hegetomi.taskify.exception;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+    public InvalidRefreshTokenException() {
+        super("Refresh token is invalid or expired");
+    }
+}
@@ -0,0 +1,7 @@
+package com.hegetomi.taskify.exception;
+
+public class ServerBusyException extends RuntimeException {
+    public ServerBusyException() {
+        super("Server is busy, please try again later");
+    }
+}
@@ -0,0 +1,7 @@
+package com.hegetomi.taskify.exception;
+
+public class TicketVersionMismatchException extends RuntimeException {
+    public TicketVersionMismatchException() {
+        super("Ticket has been modified since it was read");
+    }
+}
@@ -1,15 +1,20 @@
 package com.hegetomi.taskify.mapper;
 
 import com.hegetomi.taskify.command.NewTicketCommand;
+import com.hegetomi.taskify.dto.CommentDto;
 import com.hegetomi.taskify.dto.TicketDto;
-import com.hegetomi.taskify.dto.TicketHistoryDto;
+import com.hegetomi.taskify.dto.TicketSummary;
+import com.hegetomi.taskify.dto.UserDto;
 import com.hegetomi.taskify.entity.Ticket;
+import com.hegetomi.taskify.enums.UserRole;
 import org.mapstruct.IterableMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Mapper(componentModel = "spring")
 public interface TicketMapper {
@@ -17,11 +22,13 @@ public interface TicketMapper {
     Ticket commandToModel(NewTicketCommand ticketCommand);
 
     @Mapping(source = "closureDate", target = "closedAt")
+    @Mapping(target = "commentCount", ignore = true)
     TicketDto modelToDto(Ticket ticket);
 
     @Mapping(target = "poster.submitted", ignore = true)
     @Mapping(target = "poster.assigned", ignore = true)
     @Mapping(target = "comments", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
     @Mapping(source = "closureDate", target = "closedAt")
     @Named("noSub")
     TicketDto commandToModelSub(Ticket ticketCommand);
@@ -29,7 +36,33 @@ public interface TicketMapper {
     @IterableMapping(qualifiedByName = "noSub")
     List<TicketDto> modelsToDtos(List<Ticket> tickets);
 
-    TicketHistoryDto modelToHistoryDto(Ticket ticket);
+    default TicketDto modelToDetailDto(Ticket ticket, List<CommentDto> latestComments, long commentCount) {
+        TicketDto detail = commandToModelSub(ticket);
+        detail.setComments(latestComments);
+        detail.setCommentCount(commentCount);
+        return detail;
+    }
+
+    default List<TicketDto> summariesToDtos(List<TicketSummary> summaries, Map<Long, List<UserRole>> rolesByUser) {
+        return summaries.stream()
+                .map(summary -> summaryToDto(summary, rolesByUser))
+                .toList();
+    }
+
+    default TicketDto summaryToDto(TicketSummary summary, Map<Long, List<UserRole>> rolesByUser) {
+        return new TicketDto(summary.getId(), summary.getTitle(), summary.getDescription(), summary.getPostedAt(),
+                summary.getPriority(), summary.getType(), summary.getStatus(),
+                userToDto(summary.getPosterId(), summary.getPosterName(), rolesByUser),
+                userToDto(summary.getAssigneeId(), summary.getAssigneeName(), rolesByUser),
+                null, summary.getClosureDate(), summary.getVersion(), null);
+    }
+
+    private static UserDto userToDto(Long id, String name, Map<Long, List<UserRole>> rolesByUser) {
+        if (id == null) {
+            return null;
+        }
+        return new UserDto(id, name, new ArrayList<>(rolesByUser.getOrDefault(id, List.of())), null, null);
+    }
 
 
 }
\ No newline at end of file
@@ -28,6 +28,8 @@ public interface UserMapper {
 
     @Mapping(target = "poster.submitted", ignore = true)
     @Mapping(target = "assignee.assigned", ignore = true)
+    @Mapping(target = "closedAt", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
     TicketDto subModelToSubDto(Ticket ticket);
 
     List<TicketDto> subModelToSubDto(List<Ticket> ticket);
@@ -1,16 +1,27 @@
 package com.hegetomi.taskify.repository;
 
 import com.hegetomi.taskify.entity.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findAllByTicketId(Long id);
+    @Query("select c from Comment c where c.ticket.id = :ticketId " +
+            "and (c.commentDate > :commentDate or (c.commentDate = :commentDate and c.id > :id)) " +
+            "order by c.commentDate, c.id")
+    List<Comment> findPageByTicketId(Long ticketId, LocalDateTime commentDate, Long id, Pageable pageable);
+
+    @Query("select c from Comment c where c.ticket.id = :ticketId order by c.commentDate desc, c.id desc")
+    List<Comment> findLatestByTicketId(Long ticketId, Pageable pageable);
+
+    long countByTicketId(Long ticketId);
 
     Optional<Comment> findByPosterNameAndId(String poster, Long id);
 
@@ -0,0 +1,28 @@
+package com.hegetomi.taskify.repository;
+
+import com.hegetomi.taskify.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.id = :id")
+    int deleteByIdReturningCount(Long id);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.userId = :userId")
+    void deleteAllByUserId(Long userId);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.userId = :userId and r.expiresAt < :now")
+    void deleteExpiredByUserId(Long userId, LocalDateTime now);
+}
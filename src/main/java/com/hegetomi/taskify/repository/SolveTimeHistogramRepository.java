@@ -0,0 +1,30 @@
+package com.hegetomi.taskify.repository;
+
+import com.hegetomi.taskify.dto.manager.SolveTimeHistogramRow;
+import com.hegetomi.taskify.entity.SolveTimeHistogram;
+import com.hegetomi.taskify.enums.UserRole;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SolveTimeHistogramRepository extends JpaRepository<SolveTimeHistogram, Long> {
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into solve_time_histograms (user_id, sketch) values (:userId, :empty) " +
+            "on duplicate key update user_id = user_id")
+    void lockOrCreate(Long userId, byte[] empty);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from SolveTimeHistogram h where h.userId = :userId")
+    SolveTimeHistogram findForUpdate(Long userId);
+
+    @Query("select u.name as name, h.sketch as sketch from SolveTimeHistogram h, User u join u.roles r " +
+            "where u.id = h.userId and r = :role")
+    List<SolveTimeHistogramRow> findByRole(UserRole role);
+}
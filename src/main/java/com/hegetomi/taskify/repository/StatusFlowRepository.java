@@ -0,0 +1,31 @@
+package com.hegetomi.taskify.repository;
+
+import com.hegetomi.taskify.dto.manager.StatusFlowRow;
+import com.hegetomi.taskify.dto.manager.StatusTimeRow;
+import com.hegetomi.taskify.entity.StatusFlow;
+import com.hegetomi.taskify.entity.StatusFlowId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StatusFlowRepository extends JpaRepository<StatusFlow, StatusFlowId> {
+
+    @Query("select f.id.status as status, sum(f.exited) as tickets, sum(f.exitedMinutes) as minutes from StatusFlow f " +
+            "where f.id.bucketDate between :from and :to and (:assigneeId is null or f.id.assigneeId = :assigneeId) " +
+            "group by f.id.status")
+    List<StatusTimeRow> sumTimeInStatus(LocalDate from, LocalDate to, Long assigneeId);
+
+    @Query("select f.id.bucketDate as day, f.id.status as status, sum(f.entered - f.exited) as count from StatusFlow f " +
+            "where f.id.bucketDate between :from and :to and (:assigneeId is null or f.id.assigneeId = :assigneeId) " +
+            "group by f.id.bucketDate, f.id.status")
+    List<StatusFlowRow> sumFlowByDay(LocalDate from, LocalDate to, Long assigneeId);
+
+    @Query("select f.id.status as status, sum(f.entered - f.exited) as count from StatusFlow f " +
+            "where f.id.bucketDate < :before and (:assigneeId is null or f.id.assigneeId = :assigneeId) " +
+            "group by f.id.status")
+    List<StatusFlowRow> sumFlowBefore(LocalDate before, Long assigneeId);
+}
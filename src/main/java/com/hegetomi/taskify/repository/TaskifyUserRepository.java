@@ -1,12 +1,14 @@
 package com.hegetomi.taskify.repository;
 
-import com.hegetomi.taskify.dto.manager.TicketAverageSolveTimeDto;
+import com.hegetomi.taskify.dto.UserRoleDto;
+import com.hegetomi.taskify.dto.UserSecurityVersionDto;
 import com.hegetomi.taskify.dto.manager.TicketSolveRateDto;
 import com.hegetomi.taskify.entity.User;
 import com.hegetomi.taskify.enums.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,30 +30,25 @@ public interface TaskifyUserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByIdAndRolesContaining(Long user, UserRole role);
 
-    @Query(nativeQuery = true, value = "select tu.user_name as name, count(t.id) as count from taskify_users tu " +
-            "left join tickets t on tu.id = t.assignee_id " +
-            "left join user_roles ur on tu.id = ur.user_id " +
+    @Query("select u.id as userId, r as role from User u join u.roles r where u.id in :ids")
+    List<UserRoleDto> findRolesByUserIdIn(Collection<Long> ids);
+
+    @Query("select u.id as id, u.securityVersion as securityVersion from User u")
+    List<UserSecurityVersionDto> findAllSecurityVersions();
+
+    @Query(nativeQuery = true, value = "select tu.user_name as name, tc.open_count as count from ticket_counters tc " +
+            "join taskify_users tu on tu.id = tc.user_id " +
+            "join user_roles ur on tu.id = ur.user_id " +
             "where ur.roles= 'ROLE_EMPLOYEE' " +
-            "and t.status <> 'DONE' " +
-            "group by tu.user_name " +
+            "and tc.open_count > 0 " +
             "order by count desc")
     List<TicketSolveRateDto> getOpenTicketStats();
 
-    @Query(nativeQuery = true, value = "select tu.user_name as name, count(t.id) as count from taskify_users tu " +
-            "left join tickets t on tu.id = t.assignee_id " +
-            "left join user_roles ur on tu.id = ur.user_id " +
+    @Query(nativeQuery = true, value = "select tu.user_name as name, tc.closed_count as count from ticket_counters tc " +
+            "join taskify_users tu on tu.id = tc.user_id " +
+            "join user_roles ur on tu.id = ur.user_id " +
             "where ur.roles= 'ROLE_EMPLOYEE' " +
-            "and t.status = 'DONE' " +
-            "group by tu.user_name " +
+            "and tc.closed_count > 0 " +
             "order by count desc")
     List<TicketSolveRateDto> getClosedTicketStats();
-
-    @Query(nativeQuery = true, value = "select tu.user_name as name, avg(datediff(t.closed_at,t.posted_at)) as days " +
-            "from taskify_users tu " +
-            "left join tickets t on tu.id = t.assignee_id " +
-            "left join user_roles ur on tu.id = ur.user_id " +
-            "where ur.roles= 'ROLE_EMPLOYEE' " +
-            "group by tu.user_name " +
-            "order by days desc")
-    List<TicketAverageSolveTimeDto> getAverageSolveTimes();
 }
@@ -1,31 +1,110 @@
 package com.hegetomi.taskify.repository;
 
+import com.hegetomi.taskify.dto.TicketOwnershipDto;
+import com.hegetomi.taskify.dto.TicketRevision;
+import com.hegetomi.taskify.dto.TicketSolveTimeDto;
+import com.hegetomi.taskify.dto.TicketSummary;
 import com.hegetomi.taskify.entity.Ticket;
+import com.hegetomi.taskify.enums.Status;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
 
-    @Query(value = "select distinct t from Ticket t left join fetch t.comments where t.id = :id")
-    Optional<Ticket> findByIdWithComments(Long id);
+    String SUMMARY_SELECT = "select t.id as id, t.title as title, t.description as description, t.postedAt as postedAt, " +
+            "t.priority as priority, t.type as type, t.status as status, t.closureDate as closureDate, " +
+            "p.id as posterId, p.name as posterName, a.id as assigneeId, a.name as assigneeName, t.version as version " +
+            "from Ticket t left join t.poster p left join t.assignee a ";
+
+    @Query(value = "select t from Ticket t left join fetch t.poster left join fetch t.assignee where t.id = :id")
+    Optional<Ticket> findDetailById(Long id);
+
+    @Query(value = SUMMARY_SELECT + "where p.name = :poster and t.status in :statuses " +
+            "and (t.postedAt > :postedAt or (t.postedAt = :postedAt and t.id > :id)) order by t.postedAt, t.id")
+    List<TicketSummary> findPageByPosterName(String poster, Collection<Status> statuses, LocalDateTime postedAt, Long id, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "where a.name = :assignee and t.status in :statuses " +
+            "and (t.postedAt > :postedAt or (t.postedAt = :postedAt and t.id > :id)) order by t.postedAt, t.id")
+    List<TicketSummary> findPageByAssigneeName(String assignee, Collection<Status> statuses, LocalDateTime postedAt, Long id, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "where a is null " +
+            "and (t.postedAt > :postedAt or (t.postedAt = :postedAt and t.id > :id)) order by t.postedAt, t.id")
+    List<TicketSummary> findPageByAssigneeNull(LocalDateTime postedAt, Long id, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "where p.name = :poster and t.status in :statuses " +
+            "order by t.postedAt, t.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<TicketSummary> streamAllByPosterName(String poster, Collection<Status> statuses);
+
+    @Query(value = SUMMARY_SELECT + "where a.name = :assignee and t.status in :statuses " +
+            "order by t.postedAt, t.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<TicketSummary> streamAllByAssigneeName(String assignee, Collection<Status> statuses);
+
+    @Query(value = SUMMARY_SELECT + "where a is null order by t.postedAt, t.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<TicketSummary> streamAllByAssigneeNull();
+
+    @Query(nativeQuery = true, value = "select id from tickets where assignee_id is null and status <> 'DONE' " +
+            "order by case priority when 'CRITICAL' then 0 when 'HIGH' then 1 when 'MEDIUM' then 2 when 'LOW' then 3 else 4 end, " +
+            "posted_at, id limit :limit")
+    List<Long> findClaimCandidates(int limit);
+
+    @Query(nativeQuery = true, value = "select id from tickets where assignee_id is null and status <> 'DONE' " +
+            "and id not in (:excluded) " +
+            "order by case priority when 'CRITICAL' then 0 when 'HIGH' then 1 when 'MEDIUM' then 2 when 'LOW' then 3 else 4 end, " +
+            "posted_at, id limit :limit")
+    List<Long> findClaimCandidatesExcluding(Collection<Long> excluded, int limit);
+
+    @Query(nativeQuery = true, value = "select a.rev as rev, r.revtstmp as revisionTimestamp, a.revtype as revisionType, " +
+            "a.ticket_title as title, a.ticket_description as description, a.posted_at as postedAt, " +
+            "a.priority as priority, a.ticket_type as type, a.status as status, a.closed_at as closedAt, " +
+            "a.poster_id as posterId, a.assignee_id as assigneeId " +
+            "from tickets_aud a join revinfo r on r.rev = a.rev " +
+            "where a.id = :id and a.rev >= :fromRev order by a.rev limit :limit")
+    List<TicketRevision> findRevisions(Long id, int fromRev, int limit);
+
+    @Query(nativeQuery = true, value = "select id from tickets where id = :id and assignee_id is null " +
+            "for update skip locked")
+    Optional<Long> lockIfUnassigned(Long id);
 
-    @Query(value = "select t from Ticket  t where t.poster.name = :poster and (:status is null or UPPER(t.status) not like :status)")
-    List<Ticket> findAllByPosterName(String poster, Optional<String> status);
+    @Query("select t.version from Ticket t where t.id = :id")
+    Optional<Long> findVersionById(Long id);
 
-    @Query(value = "select t from Ticket  t where t.assignee.name = :assignee and (:status is null or UPPER(t.status) not like :status)")
-    List<Ticket> findAllByAssigneeName(String assignee, Optional<String> status);
+    @Modifying
+    @Query("update Ticket t set t.version = t.version + 1 where t.id = :id")
+    int incrementVersion(Long id);
 
-    List<Ticket> findAllByAssigneeNull();
+    @Modifying
+    @Query("update Ticket t set t.version = t.version + 1 " +
+            "where t.id = (select c.ticket.id from Comment c where c.id = :commentId)")
+    int incrementVersionByCommentId(Long commentId);
 
-    Optional<Ticket> findByPosterNameAndId(String posterName, Long id);
+    @Query("select t.id as id, p.id as posterId, a.id as assigneeId from Ticket t " +
+            "left join t.poster p left join t.assignee a where t.id in :ids")
+    List<TicketOwnershipDto> findOwnershipByIdIn(Collection<Long> ids);
 
-    Optional<Ticket> findByAssigneeNameAndId(String posterName, Long id);
+    @Query("select t.id as id, p.id as posterId, a.id as assigneeId from Ticket t " +
+            "left join t.poster p left join t.assignee a")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<TicketOwnershipDto> streamOwnership();
 
-    @Query("select t from Ticket t left join t.assignee a where t.id = :id and (t.assignee is null or a.name = :assigneeName)")
-    Optional<Ticket> findByIdAndAssigneeNameOrIdAndAssigneeNull(Long id, String assigneeName);
+    @Query("select a.id as assigneeId, t.postedAt as postedAt, t.closureDate as closedAt from Ticket t " +
+            "join t.assignee a where t.status = :status and t.closureDate is not null")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<TicketSolveTimeDto> streamSolveTimes(Status status);
 }
@@ -0,0 +1,32 @@
+package com.hegetomi.taskify.repository;
+
+import com.hegetomi.taskify.entity.TicketRollup;
+import com.hegetomi.taskify.entity.TicketRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TicketRollupRepository extends JpaRepository<TicketRollup, TicketRollupId> {
+
+    @Query("select r from TicketRollup r where r.id.bucketDate between :from and :to")
+    List<TicketRollup> findByBucketDateBetween(LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into ticket_rollups " +
+            "(bucket_date, assignee_id, priority, ticket_type, opened, closed, solve_minutes) " +
+            "select bucket_date, assignee_id, priority, ticket_type, sum(opened), sum(closed), sum(solve_minutes) from (" +
+            "select date(posted_at) as bucket_date, coalesce(assignee_id, 0) as assignee_id, " +
+            "coalesce(priority, '') as priority, coalesce(ticket_type, '') as ticket_type, " +
+            "1 as opened, 0 as closed, 0 as solve_minutes from tickets " +
+            "union all " +
+            "select date(closed_at), coalesce(assignee_id, 0), coalesce(priority, ''), coalesce(ticket_type, ''), " +
+            "0, 1, greatest(timestampdiff(minute, posted_at, closed_at), 0) from tickets " +
+            "where status = 'DONE' and closed_at is not null" +
+            ") events group by bucket_date, assignee_id, priority, ticket_type")
+    int rebuildFromTickets();
+}
@@ -0,0 +1,102 @@
+package com.hegetomi.taskify.security;
+
+import com.hegetomi.taskify.exception.ServerBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final int MAX_STRENGTH = 16;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, long timeoutMillis,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.hashTimer = meterRegistry.timer("taskify.password.hash");
+        this.rejected = meterRegistry.counter("taskify.password.rejected");
+        Gauge.builder("taskify.password.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("taskify.password.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    public static int calibrateStrength(long targetMillis, int minStrength) {
+        if (targetMillis <= 0) {
+            return minStrength;
+        }
+        new BCryptPasswordEncoder(4).encode("warm-up");
+        long elapsedNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(minStrength).encode("calibration");
+            elapsedNanos = Math.min(elapsedNanos, System.nanoTime() - start);
+        }
+        double ratio = (double) TimeUnit.MILLISECONDS.toNanos(targetMillis) / Math.max(elapsedNanos, 1);
+        int strength = minStrength + (int) Math.max(0, Math.round(Math.log(ratio) / Math.log(2)));
+        strength = Math.min(strength, MAX_STRENGTH);
+        log.info("BCrypt strength calibrated to {} ({} ms at strength {}, target {} ms)",
+                strength, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), minStrength, targetMillis);
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Callable<T> hashing) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(hashing));
+        } catch (RejectedExecutionException ree) {
+            rejected.increment();
+            throw new ServerBusyException();
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ServerBusyException();
+        } catch (TimeoutException te) {
+            future.cancel(true);
+            rejected.increment();
+            throw new ServerBusyException();
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(ee.getCause());
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.hegetomi.taskify.security;
 
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,6 +18,7 @@ import java.io.IOException;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class JwtAuthFilter extends OncePerRequestFilter {
     public static final String BEARER = "Bearer ";
     public static final String AUTHORIZATION = "Authorization";
@@ -26,10 +29,14 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String authHeader = request.getHeader(AUTHORIZATION);
         if (authHeader != null && authHeader.startsWith(BEARER)) {
             String jwtToken = authHeader.substring(BEARER.length());
-            UserDetails principal = jwtService.parseJwt(jwtToken);
+            try {
+                UserDetails principal = jwtService.parseJwt(jwtToken);
 
-            Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+                Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (JWTVerificationException jve) {
+                log.debug("Rejected bearer token: {}", jve.getMessage());
+            }
         }
         filterChain.doFilter(request, response);
     }
@@ -1,45 +1,81 @@
 package com.hegetomi.taskify.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.hegetomi.taskify.entity.User;
+import com.hegetomi.taskify.util.TokenDigest;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
     private static final String ISSUER = "Taskify";
+    private static final String AUTH = "auth";
+    private static final String USER_ID = "uid";
+    private static final String SECURITY_VERSION = "ver";
     private static final Algorithm SECRET = Algorithm.HMAC256("myS4lt1S3Cr3t*");
+    private static final JWTVerifier VERIFIER = JWT.require(SECRET)
+            .withIssuer(ISSUER)
+            .withClaimPresence(USER_ID)
+            .withClaimPresence(SECURITY_VERSION)
+            .build();
 
-    public String createJwtToken(UserDetails principal) {
+    private final VerifiedTokenCache tokenCache;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final Map<List<String>, List<GrantedAuthority>> authoritySets = new ConcurrentHashMap<>();
+
+    public String createJwtToken(User user) {
         return JWT.create()
-                .withSubject(principal.getUsername())
-                .withArrayClaim("auth", principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toArray(String[]::new))
+                .withSubject(user.getUsername())
+                .withArrayClaim(AUTH, user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toArray(String[]::new))
+                .withClaim(USER_ID, user.getId())
+                .withClaim(SECURITY_VERSION, user.getSecurityVersion())
                 .withExpiresAt(new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(100)))
                 .withIssuer(ISSUER)
                 .sign(SECRET);
     }
 
-    public UserDetails parseJwt(String jwtToken) {
-        DecodedJWT dec = JWT.require(SECRET)
-                .withIssuer(ISSUER)
-                .build()
-                .verify(jwtToken);
-
-        return new User(dec.getSubject(), "", dec.getClaim("auth")
-                .asList(String.class)
-                .stream()
-                .map(SimpleGrantedAuthority::new)
-                .toList());
+    public TaskifyPrincipal parseJwt(String jwtToken) {
+        String tokenDigest = TokenDigest.sha256(jwtToken);
+        TaskifyPrincipal principal = tokenCache.get(tokenDigest)
+                .orElseGet(() -> verifyJwt(tokenDigest, jwtToken));
+        if (!securityVersionRegistry.isCurrent(principal.getId(), principal.getSecurityVersion())) {
+            tokenCache.evict(tokenDigest);
+            throw new JWTVerificationException("The token was issued before the user's rights changed");
+        }
+        return principal;
     }
 
     public boolean isTokenExpired(String jwtToken) {
         return JWT.decode(jwtToken).getExpiresAt().before(new Date());
     }
+
+    private TaskifyPrincipal verifyJwt(String tokenDigest, String jwtToken) {
+        DecodedJWT dec = VERIFIER.verify(jwtToken);
+        TaskifyPrincipal principal = new TaskifyPrincipal(
+                dec.getClaim(USER_ID).asLong(),
+                dec.getSubject(),
+                dec.getClaim(SECURITY_VERSION).asInt(),
+                internAuthorities(dec.getClaim(AUTH).asList(String.class)));
+        tokenCache.put(tokenDigest, principal, dec.getExpiresAtAsInstant());
+        return principal;
+    }
+
+    private List<GrantedAuthority> internAuthorities(List<String> authorities) {
+        return authoritySets.computeIfAbsent(List.copyOf(authorities), names -> names.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList());
+    }
 }
@@ -1,6 +1,9 @@
 package com.hegetomi.taskify.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -25,22 +28,28 @@ public class SecurityConfig {
     private final JwtAuthFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(@Value("${taskify.password.bcrypt.target-millis:250}") long targetMillis,
+                                                  @Value("${taskify.password.bcrypt.min-strength:10}") int minStrength,
+                                                  @Value("${taskify.password.hashing.pool-size:4}") int poolSize,
+                                                  @Value("${taskify.password.hashing.queue-capacity:50}") int queueCapacity,
+                                                  @Value("${taskify.password.hashing.timeout-millis:5000}") long timeoutMillis,
+                                                  MeterRegistry meterRegistry) {
+        int strength = BoundedPasswordEncoder.calibrateStrength(targetMillis, minStrength);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, timeoutMillis, meterRegistry);
     }
 
     @Bean
-    public AuthenticationManager authenticationManagerBean(HttpSecurity http) throws Exception {
+    public AuthenticationManager authenticationManagerBean(HttpSecurity http, AuthenticationProvider authenticationProvider) throws Exception {
         AuthenticationManagerBuilder authManagerBuilder = http.getSharedObject(AuthenticationManagerBuilder.class);
-        authManagerBuilder.authenticationProvider(authenticationProvider());
+        authManagerBuilder.authenticationProvider(authenticationProvider);
         return authManagerBuilder.build();
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
-        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder());
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
         daoAuthenticationProvider.setUserDetailsService(userDetailsService);
         return daoAuthenticationProvider;
     }
@@ -51,8 +60,10 @@ public class SecurityConfig {
                 .cors().and()
                 .csrf().disable()
                 .authorizeHttpRequests()
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/register").permitAll()
                 .requestMatchers("/api/auth/login").permitAll()
+                .requestMatchers("/api/auth/refresh").permitAll()
                 .requestMatchers("/v2/api-docs",
                         "/swagger-resources",
                         "/swagger-resources/**",
@@ -0,0 +1,11 @@
+package com.hegetomi.taskify.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SecurityVersionChangedEvent {
+    private final Long userId;
+    private final int securityVersion;
+}
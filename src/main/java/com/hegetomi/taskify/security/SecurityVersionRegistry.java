@@ -0,0 +1,108 @@
+package com.hegetomi.taskify.security;
+
+import com.hegetomi.taskify.dto.UserSecurityVersionDto;
+import com.hegetomi.taskify.repository.TaskifyUserRepository;
+import com.hegetomi.taskify.util.LongLongMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Latest security version of every user. Changes committed on this instance arrive as events; changes from
+ * other instances or plain SQL are picked up by a reload every {@code taskify.security.version.reload-interval},
+ * so a revoked token can stay usable on another instance for at most that long. Versions only grow, so a
+ * reload never undoes a newer event.
+ */
+@Component
+@Slf4j
+public class SecurityVersionRegistry {
+
+    private final Duration reloadInterval;
+    private final TaskifyUserRepository repository;
+    private final LongLongMap versions = new LongLongMap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ScheduledExecutorService scheduler;
+
+    public SecurityVersionRegistry(@Value("${taskify.security.version.reload-interval:30s}") Duration reloadInterval,
+                                   TaskifyUserRepository repository) {
+        this.reloadInterval = reloadInterval;
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    public void start() {
+        log.info("Loaded security versions of {} users", load());
+        if (reloadInterval.isZero() || reloadInterval.isNegative()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "security-version-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reload, reloadInterval.toMillis(), reloadInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public int load() {
+        List<UserSecurityVersionDto> users = repository.findAllSecurityVersions();
+        lock.writeLock().lock();
+        try {
+            users.forEach(user -> raise(user.getId(), user.getSecurityVersion()));
+            return versions.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isCurrent(long userId, int securityVersion) {
+        lock.readLock().lock();
+        try {
+            return securityVersion >= versions.get(userId, 0L);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onSecurityVersionChanged(SecurityVersionChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            raise(event.getUserId(), event.getSecurityVersion());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reload() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            log.error("Security version reload failed", e);
+        }
+    }
+
+    private void raise(long userId, long securityVersion) {
+        if (securityVersion > versions.get(userId, 0L)) {
+            versions.put(userId, securityVersion);
+        }
+    }
+}
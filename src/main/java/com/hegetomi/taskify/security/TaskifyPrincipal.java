@@ -0,0 +1,20 @@
+package com.hegetomi.taskify.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+@Getter
+public class TaskifyPrincipal extends User {
+
+    private final Long id;
+    private final int securityVersion;
+
+    public TaskifyPrincipal(Long id, String username, int securityVersion, Collection<? extends GrantedAuthority> authorities) {
+        super(username, "", authorities);
+        this.id = id;
+        this.securityVersion = securityVersion;
+    }
+}
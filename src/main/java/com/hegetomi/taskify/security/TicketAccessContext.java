@@ -0,0 +1,38 @@
+package com.hegetomi.taskify.security;
+
+import com.hegetomi.taskify.entity.Ticket;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+@Component
+public class TicketAccessContext {
+
+    private static final String LOADED_TICKET = TicketAccessContext.class.getName() + ".LOADED_TICKET";
+
+    public Optional<Ticket> find(Long ticketId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Optional.empty();
+        }
+        Ticket ticket = (Ticket) attributes.getAttribute(LOADED_TICKET, RequestAttributes.SCOPE_REQUEST);
+        return Optional.ofNullable(ticket)
+                .filter(t -> t.getId().equals(ticketId));
+    }
+
+    public boolean isReadRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && HttpMethod.GET.matches(attributes.getRequest().getMethod());
+    }
+
+    public void remember(Ticket ticket) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(LOADED_TICKET, ticket, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
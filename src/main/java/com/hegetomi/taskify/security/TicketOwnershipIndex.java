@@ -0,0 +1,213 @@
+package com.hegetomi.taskify.security;
+
+import com.hegetomi.taskify.dto.TicketOwnershipDto;
+import com.hegetomi.taskify.repository.TicketRepository;
+import com.hegetomi.taskify.util.LongLongMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Poster and assignee of every ticket, kept in memory for read authorization. Commits of this instance update
+ * it right away; changes made by other instances or by plain SQL only show up after the next full resync, so
+ * entries can be up to {@code taskify.ownership.index.resync-interval} stale. Write requests therefore never
+ * trust it and check ownership against the database instead, see {@link TicketOwnershipService}.
+ */
+@Component
+@Slf4j
+public class TicketOwnershipIndex {
+
+    public static final long NO_USER = -1L;
+
+    private final Duration resyncInterval;
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private LongLongMap posters = new LongLongMap(1024);
+    private LongLongMap assignees = new LongLongMap(1024);
+    private List<Change> changesDuringResync;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean ready;
+
+    public TicketOwnershipIndex(@Value("${taskify.ownership.index.resync-interval:1m}") Duration resyncInterval,
+                                TicketRepository ticketRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.resyncInterval = resyncInterval;
+        this.ticketRepository = ticketRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        Gauge.builder("taskify.ownership.index.size", this, TicketOwnershipIndex::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        resync();
+        ready = true;
+        log.info("Ticket ownership index warmed with {} tickets", size());
+        if (resyncInterval.isZero() || resyncInterval.isNegative()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "ticket-ownership-resync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runResync, resyncInterval.toMillis(), resyncInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the tickets table. Changes committed while the table is read are replayed on
+     * top of the new snapshot, so they are not lost when it replaces the current maps.
+     */
+    public synchronized void resync() {
+        LongLongMap freshPosters = new LongLongMap(Math.max(1024, size()));
+        LongLongMap freshAssignees = new LongLongMap(Math.max(1024, size()));
+        lock.writeLock().lock();
+        try {
+            changesDuringResync = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        boolean loaded = false;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<TicketOwnershipDto> tickets = ticketRepository.streamOwnership()) {
+                    tickets.forEach(ticket -> {
+                        freshPosters.put(ticket.getId(), orNoUser(ticket.getPosterId()));
+                        freshAssignees.put(ticket.getId(), orNoUser(ticket.getAssigneeId()));
+                    });
+                }
+            });
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    posters = freshPosters;
+                    assignees = freshAssignees;
+                    changesDuringResync.forEach(this::apply);
+                }
+                changesDuringResync = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean contains(long ticketId) {
+        lock.readLock().lock();
+        try {
+            return posters.containsKey(ticketId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long posterOf(long ticketId) {
+        lock.readLock().lock();
+        try {
+            return posters.get(ticketId, NO_USER);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long assigneeOf(long ticketId) {
+        lock.readLock().lock();
+        try {
+            return assignees.get(ticketId, NO_USER);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void update(long ticketId, Long posterId, Long assigneeId) {
+        record(new Change(ticketId, orNoUser(posterId), orNoUser(assigneeId), false));
+    }
+
+    public void remove(long ticketId) {
+        record(new Change(ticketId, NO_USER, NO_USER, true));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return posters.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void runResync() {
+        try {
+            resync();
+        } catch (RuntimeException e) {
+            log.error("Ticket ownership index resync failed", e);
+        }
+    }
+
+    private void record(Change change) {
+        lock.writeLock().lock();
+        try {
+            apply(change);
+            if (changesDuringResync != null) {
+                changesDuringResync.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Change change) {
+        if (change.removed) {
+            posters.remove(change.ticketId);
+            assignees.remove(change.ticketId);
+        } else {
+            posters.put(change.ticketId, change.posterId);
+            assignees.put(change.ticketId, change.assigneeId);
+        }
+    }
+
+    private static long orNoUser(Long userId) {
+        return userId == null ? NO_USER : userId;
+    }
+
+    @AllArgsConstructor
+    private static class Change {
+        private final long ticketId;
+        private final long posterId;
+        private final long assigneeId;
+        private final boolean removed;
+    }
+}
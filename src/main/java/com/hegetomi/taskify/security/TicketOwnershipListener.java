@@ -0,0 +1,37 @@
+package com.hegetomi.taskify.security;
+
+import com.hegetomi.taskify.entity.Ticket;
+import com.hegetomi.taskify.entity.User;
+import com.hegetomi.taskify.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TicketOwnershipListener {
+
+    private final ObjectProvider<TicketOwnershipIndex> index;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Ticket ticket) {
+        long ticketId = ticket.getId();
+        Long posterId = idOf(ticket.getPoster());
+        Long assigneeId = idOf(ticket.getAssignee());
+        AfterCommit.run(() -> index.getObject().update(ticketId, posterId, assigneeId));
+    }
+
+    @PostRemove
+    public void onRemove(Ticket ticket) {
+        long ticketId = ticket.getId();
+        AfterCommit.run(() -> index.getObject().remove(ticketId));
+    }
+
+    private static Long idOf(User user) {
+        return user == null ? null : user.getId();
+    }
+}
@@ -1,28 +1,107 @@
 package com.hegetomi.taskify.security;
 
+import com.hegetomi.taskify.dto.TicketOwnershipDto;
+import com.hegetomi.taskify.entity.Ticket;
+import com.hegetomi.taskify.entity.User;
 import com.hegetomi.taskify.repository.TicketRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+/**
+ * Ownership checks for ticket endpoints. GET requests are answered from {@link TicketOwnershipIndex}, which may
+ * lag behind other instances; every other request loads the ticket, so writes are always authorized against
+ * the database and the service reuses the loaded entity.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TicketOwnershipService {
 
     private final TicketRepository ticketRepository;
+    private final TicketAccessContext ticketAccessContext;
+    private final TicketOwnershipIndex ownershipIndex;
 
     public boolean isPostedByUser(Long ticketId, UserDetails userDetails) {
-        return ticketRepository.findByPosterNameAndId(userDetails.getUsername(), ticketId).isPresent();
+        if (isIndexed(ticketId, userDetails)) {
+            return ownershipIndex.posterOf(ticketId) == principalId(userDetails);
+        }
+        return findTicket(ticketId)
+                .map(Ticket::getPoster)
+                .filter(poster -> isSameUser(poster, userDetails))
+                .isPresent();
     }
 
     public boolean isAssignedToUser(Long ticketId, UserDetails userDetails) {
-        return ticketRepository.findByAssigneeNameAndId(userDetails.getUsername(), ticketId).isPresent();
+        if (isIndexed(ticketId, userDetails)) {
+            return ownershipIndex.assigneeOf(ticketId) == principalId(userDetails);
+        }
+        return findTicket(ticketId)
+                .map(Ticket::getAssignee)
+                .filter(assignee -> isSameUser(assignee, userDetails))
+                .isPresent();
     }
 
     public boolean isAvailableToAssign(Long ticketId, UserDetails userDetails) {
-        return ticketRepository.findByIdAndAssigneeNameOrIdAndAssigneeNull(ticketId, userDetails.getUsername()).isPresent();
+        if (isIndexed(ticketId, userDetails)) {
+            long assigneeId = ownershipIndex.assigneeOf(ticketId);
+            return assigneeId == TicketOwnershipIndex.NO_USER || assigneeId == principalId(userDetails);
+        }
+        return findTicket(ticketId)
+                .filter(ticket -> ticket.getAssignee() == null || isSameUser(ticket.getAssignee(), userDetails))
+                .isPresent();
+    }
+
+    public boolean areAvailableToAssign(Collection<Long> ticketIds, UserDetails userDetails) {
+        return allMatch(ticketIds, userDetails, (assigneeId, userId) -> assigneeId == null || assigneeId.equals(userId));
+    }
+
+    public boolean areAssignedToUser(Collection<Long> ticketIds, UserDetails userDetails) {
+        return allMatch(ticketIds, userDetails, (assigneeId, userId) -> userId.equals(assigneeId));
+    }
+
+    private boolean allMatch(Collection<Long> ticketIds, UserDetails userDetails, BiPredicate<Long, Long> assigneeCheck) {
+        if (ticketIds == null || ticketIds.isEmpty() || ticketIds.stream().anyMatch(Objects::isNull)
+                || !(userDetails instanceof TaskifyPrincipal principal)) {
+            return false;
+        }
+        Set<Long> ids = new HashSet<>(ticketIds);
+        List<TicketOwnershipDto> tickets = ticketRepository.findOwnershipByIdIn(ids);
+        return tickets.size() == ids.size()
+                && tickets.stream().allMatch(ticket -> assigneeCheck.test(ticket.getAssigneeId(), principal.getId()));
+    }
+
+    private boolean isIndexed(Long ticketId, UserDetails userDetails) {
+        return ticketAccessContext.isReadRequest()
+                && ownershipIndex.isReady()
+                && userDetails instanceof TaskifyPrincipal
+                && ownershipIndex.contains(ticketId);
+    }
+
+    private long principalId(UserDetails userDetails) {
+        return ((TaskifyPrincipal) userDetails).getId();
+    }
+
+    private Optional<Ticket> findTicket(Long ticketId) {
+        Optional<Ticket> ticket = ticketAccessContext.find(ticketId);
+        if (ticket.isEmpty()) {
+            ticket = ticketRepository.findDetailById(ticketId);
+            ticket.ifPresent(ticketAccessContext::remember);
+        }
+        return ticket;
+    }
+
+    private boolean isSameUser(User user, UserDetails userDetails) {
+        return user.getName().equals(userDetails.getUsername());
     }
 
 }
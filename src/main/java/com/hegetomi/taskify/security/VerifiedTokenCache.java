@@ -0,0 +1,107 @@
+package com.hegetomi.taskify.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded cache of verified tokens. Entries are evicted in insertion order once the cache is full; every token
+ * gets the same lifetime, so the oldest entry is also the one closest to expiry. Expired entries are dropped
+ * as soon as they are looked up.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Map<String, CachedPrincipal> entries = new ConcurrentHashMap<>();
+    private final Queue<CachedPrincipal> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxSize;
+    private final Counter hits;
+    private final Counter misses;
+
+    public VerifiedTokenCache(@Value("${taskify.jwt.cache.max-size:10000}") int maxSize, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.hits = meterRegistry.counter("taskify.jwt.cache", "result", "hit");
+        this.misses = meterRegistry.counter("taskify.jwt.cache", "result", "miss");
+        Gauge.builder("taskify.jwt.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    public Optional<TaskifyPrincipal> get(String tokenDigest) {
+        CachedPrincipal cached = entries.get(tokenDigest);
+        if (cached == null || cached.isExpired(Instant.now())) {
+            if (cached != null) {
+                entries.remove(tokenDigest, cached);
+            }
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached.getPrincipal());
+    }
+
+    public void put(String tokenDigest, TaskifyPrincipal principal, Instant expiresAt) {
+        if (maxSize <= 0 || !Instant.now().isBefore(expiresAt)) {
+            return;
+        }
+        CachedPrincipal cached = new CachedPrincipal(tokenDigest, principal, expiresAt);
+        entries.put(tokenDigest, cached);
+        insertionOrder.add(cached);
+        queued.incrementAndGet();
+        while (entries.size() > maxSize) {
+            CachedPrincipal oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            queued.decrementAndGet();
+            entries.remove(oldest.getTokenDigest(), oldest);
+        }
+        if (queued.get() > 2 * maxSize) {
+            compact();
+        }
+    }
+
+    public void evict(String tokenDigest) {
+        entries.remove(tokenDigest);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void compact() {
+        if (queued.get() <= 2 * maxSize) {
+            return;
+        }
+        insertionOrder.removeIf(cached -> {
+            if (entries.get(cached.getTokenDigest()) != cached) {
+                queued.decrementAndGet();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedPrincipal {
+        private final String tokenDigest;
+        private final TaskifyPrincipal principal;
+        private final Instant expiresAt;
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
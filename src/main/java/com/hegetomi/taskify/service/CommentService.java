@@ -2,17 +2,20 @@ package com.hegetomi.taskify.service;
 
 import com.hegetomi.taskify.command.CreateCommentCommand;
 import com.hegetomi.taskify.dto.CommentDto;
+import com.hegetomi.taskify.dto.CursorPage;
 import com.hegetomi.taskify.entity.Comment;
-import com.hegetomi.taskify.entity.Ticket;
-import com.hegetomi.taskify.exception.TicketNotFoundException;
 import com.hegetomi.taskify.mapper.CommentMapper;
 import com.hegetomi.taskify.repository.CommentRepository;
 import com.hegetomi.taskify.repository.TicketRepository;
+import com.hegetomi.taskify.util.KeysetCursor;
+import com.hegetomi.taskify.util.PageSizePolicy;
 import com.hegetomi.taskify.util.TimeMachine;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -23,25 +26,32 @@ public class CommentService {
     private final TicketRepository ticketRepository;
     private final CommentMapper commentMapper;
     private final TimeMachine timeMachine;
-
-    public List<CommentDto> getCommentsForTicket(Long id) {
-        return commentMapper.modelsToDtos(commentRepository.findAllByTicketId(id));
+    private final CommentWriteBuffer commentWriteBuffer;
+    private final PageSizePolicy pageSizePolicy;
+
+    public CursorPage<CommentDto> getCommentsForTicket(Long id, String cursor, LocalDateTime since, Integer size) {
+        KeysetCursor after = cursor == null && since != null
+                ? new KeysetCursor(since, Long.MAX_VALUE)
+                : KeysetCursor.decode(cursor);
+        int pageSize = pageSizePolicy.resolve(size);
+        List<Comment> comments = commentRepository.findPageByTicketId(id, after.getTime(), after.getId(),
+                PageRequest.of(0, pageSize + 1));
+        if (comments.size() <= pageSize) {
+            return new CursorPage<>(commentMapper.modelsToDtos(comments), null);
+        }
+        List<Comment> page = comments.subList(0, pageSize);
+        Comment last = page.get(pageSize - 1);
+        return new CursorPage<>(commentMapper.modelsToDtos(page),
+                new KeysetCursor(last.getCommentDate(), last.getId()).encode());
     }
 
     public CommentDto postCommentToTicket(Long id, CreateCommentCommand command, String name) {
-
-        Ticket requestedTicket = ticketRepository.findById(id).orElseThrow(() -> new TicketNotFoundException("Ticket not found"));
-        Comment comment = Comment.builder()
-                .commentDate(timeMachine.getTime())
-                .ticket(requestedTicket)
-                .posterName(name)
-                .value(command.getValue())
-                .build();
-        return commentMapper.modelToDto(commentRepository.save(comment));
+        return commentWriteBuffer.write(id, name, command.getValue(), timeMachine.getTime());
     }
 
     @Transactional
     public void deleteById(Long id) {
+        ticketRepository.incrementVersionByCommentId(id);
         commentRepository.deleteById(id);
     }
 }
@@ -0,0 +1,248 @@
+package com.hegetomi.taskify.service;
+
+import com.hegetomi.taskify.dto.CommentDto;
+import com.hegetomi.taskify.entity.Comment;
+import com.hegetomi.taskify.exception.ServerBusyException;
+import com.hegetomi.taskify.exception.TicketNotFoundException;
+import com.hegetomi.taskify.mapper.CommentMapper;
+import com.hegetomi.taskify.repository.CommentRepository;
+import com.hegetomi.taskify.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persists new comments. With write-behind enabled, callers enqueue their comment and block until a single
+ * flusher thread has committed it together with whatever else arrived within the linger window, so a burst
+ * on one ticket costs one transaction, one version bump and one audit revision per batch instead of per comment.
+ * A caller that times out while its comment is still queued takes it back out and gets a 503, so the comment is
+ * never committed; once the flusher has picked a comment up, its caller waits for that flush to finish instead.
+ */
+@Component
+@Slf4j
+public class CommentWriteBuffer {
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long timeoutMillis;
+    private final BlockingQueue<PendingComment> queue;
+    private final TransactionTemplate transactionTemplate;
+    private final CommentRepository commentRepository;
+    private final TicketRepository ticketRepository;
+    private final CommentMapper commentMapper;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public CommentWriteBuffer(@Value("${taskify.comment.write-behind.enabled:false}") boolean enabled,
+                              @Value("${taskify.comment.write-behind.capacity:10000}") int capacity,
+                              @Value("${taskify.comment.write-behind.batch-size:100}") int batchSize,
+                              @Value("${taskify.comment.write-behind.linger-millis:5}") long lingerMillis,
+                              @Value("${taskify.comment.write-behind.timeout-millis:5000}") long timeoutMillis,
+                              PlatformTransactionManager transactionManager,
+                              CommentRepository commentRepository,
+                              TicketRepository ticketRepository,
+                              CommentMapper commentMapper,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.timeoutMillis = timeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.commentRepository = commentRepository;
+        this.ticketRepository = ticketRepository;
+        this.commentMapper = commentMapper;
+        this.batchSizes = meterRegistry.summary("taskify.comment.write.batch");
+        this.rejected = meterRegistry.counter("taskify.comment.write.rejected");
+        Gauge.builder("taskify.comment.write.queue", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::run, "comment-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(timeoutMillis);
+        }
+    }
+
+    public CommentDto write(Long ticketId, String posterName, String value, LocalDateTime commentDate) {
+        PendingComment pending = new PendingComment(ticketId, posterName, value, commentDate);
+        if (!enabled) {
+            flush(List.of(pending));
+        } else if (!running || !queue.offer(pending)) {
+            rejected.increment();
+            throw new ServerBusyException();
+        }
+        try {
+            return pending.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new ServerBusyException();
+        } catch (TimeoutException te) {
+            if (pending.claim()) {
+                queue.remove(pending);
+                rejected.increment();
+                throw new ServerBusyException();
+            }
+            return awaitFlush(pending);
+        } catch (ExecutionException ee) {
+            throw unwrap(ee);
+        }
+    }
+
+    private CommentDto awaitFlush(PendingComment pending) {
+        try {
+            return pending.result.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new ServerBusyException();
+        } catch (ExecutionException ee) {
+            throw unwrap(ee);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException ee) {
+        if (ee.getCause() instanceof RuntimeException re) {
+            return re;
+        }
+        return new IllegalStateException(ee.getCause());
+    }
+
+    private void run() {
+        List<PendingComment> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingComment first = queue.poll(lingerNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                batch.removeIf(pending -> !pending.claim());
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Comment write-behind flush failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<PendingComment> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            PendingComment next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingComment> batch) {
+        List<Comment> saved;
+        try {
+            saved = transactionTemplate.execute(status -> persist(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+            } else {
+                batch.forEach(pending -> flush(List.of(pending)));
+            }
+            return;
+        }
+        batchSizes.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(commentMapper.modelToDto(saved.get(i)));
+        }
+    }
+
+    private List<Comment> persist(List<PendingComment> batch) {
+        Set<Long> ticketIds = new LinkedHashSet<>();
+        List<Comment> comments = new ArrayList<>(batch.size());
+        for (PendingComment pending : batch) {
+            ticketIds.add(pending.ticketId);
+            comments.add(Comment.builder()
+                    .ticket(ticketRepository.getReferenceById(pending.ticketId))
+                    .posterName(pending.posterName)
+                    .value(pending.value)
+                    .commentDate(pending.commentDate)
+                    .build());
+        }
+        for (Long ticketId : ticketIds) {
+            if (ticketRepository.incrementVersion(ticketId) == 0) {
+                throw new TicketNotFoundException("Ticket not found");
+            }
+        }
+        return commentRepository.saveAll(comments);
+    }
+
+    private static class PendingComment {
+        private final Long ticketId;
+        private final String posterName;
+        private final String value;
+        private final LocalDateTime commentDate;
+        private final CompletableFuture<CommentDto> result = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        PendingComment(Long ticketId, String posterName, String value, LocalDateTime commentDate) {
+            this.ticketId = ticketId;
+            this.posterName = posterName;
+            this.value = value;
+            this.commentDate = commentDate;
+        }
+
+        /**
+         * Claimed either by the flusher, which will commit the comment, or by its timed out caller, which
+         * withdraws it; whoever comes second leaves it alone.
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
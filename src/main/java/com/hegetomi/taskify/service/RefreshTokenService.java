@@ -0,0 +1,61 @@
+package com.hegetomi.taskify.service;
+
+import com.hegetomi.taskify.entity.RefreshToken;
+import com.hegetomi.taskify.exception.InvalidRefreshTokenException;
+import com.hegetomi.taskify.repository.RefreshTokenRepository;
+import com.hegetomi.taskify.util.TokenDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository repository;
+    private final long validityDays;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository repository,
+                               @Value("${taskify.jwt.refresh.validity-days:30}") long validityDays) {
+        this.repository = repository;
+        this.validityDays = validityDays;
+    }
+
+    @Transactional
+    public String issue(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        repository.deleteExpiredByUserId(userId, now);
+
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        repository.save(RefreshToken.builder()
+                .tokenHash(TokenDigest.sha256(token))
+                .userId(userId)
+                .expiresAt(now.plusDays(validityDays))
+                .build());
+        return token;
+    }
+
+    @Transactional
+    public Long consume(String token) {
+        RefreshToken refreshToken = repository.findByTokenHash(TokenDigest.sha256(token))
+                .orElseThrow(InvalidRefreshTokenException::new);
+        if (repository.deleteByIdReturningCount(refreshToken.getId()) != 1
+                || refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidRefreshTokenException();
+        }
+        return refreshToken.getUserId();
+    }
+
+    @Transactional
+    public void revokeAll(Long userId) {
+        repository.deleteAllByUserId(userId);
+    }
+}
@@ -0,0 +1,88 @@
+package com.hegetomi.taskify.service;
+
+import com.hegetomi.taskify.dto.TicketSolveTimeDto;
+import com.hegetomi.taskify.dto.manager.SolveTimeHistogramRow;
+import com.hegetomi.taskify.dto.manager.TicketAverageSolveTimeDto;
+import com.hegetomi.taskify.dto.manager.TicketAverageSolveTimeDtoImpl;
+import com.hegetomi.taskify.entity.SolveTimeHistogram;
+import com.hegetomi.taskify.enums.Status;
+import com.hegetomi.taskify.enums.UserRole;
+import com.hegetomi.taskify.repository.SolveTimeHistogramRepository;
+import com.hegetomi.taskify.repository.TicketRepository;
+import com.hegetomi.taskify.util.LogHistogram;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Keeps one {@link LogHistogram} of solve times in minutes per assignee. A ticket is recorded when it moves to
+ * DONE, so a reopened and closed again ticket counts as a second solve. The sketch is read with a locking read,
+ * because a plain read would see the transaction's snapshot and overwrite solves committed since.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SolveTimeStatsService {
+
+    private static final double MINUTES_PER_DAY = 24 * 60;
+
+    private final SolveTimeHistogramRepository histogramRepository;
+    private final TicketRepository ticketRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (histogramRepository.count() > 0) {
+            return;
+        }
+        Map<Long, LogHistogram> histograms = new HashMap<>();
+        try (Stream<TicketSolveTimeDto> solveTimes = ticketRepository.streamSolveTimes(Status.DONE)) {
+            solveTimes.forEach(ticket -> histograms.computeIfAbsent(ticket.getAssigneeId(), id -> new LogHistogram())
+                    .record(minutesBetween(ticket.getPostedAt(), ticket.getClosedAt())));
+        }
+        histograms.forEach((userId, histogram) ->
+                histogramRepository.save(new SolveTimeHistogram(userId, histogram.toBytes())));
+        log.info("Solve time histograms backfilled for {} assignees", histograms.size());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSolved(Long assigneeId, LocalDateTime postedAt, LocalDateTime closedAt) {
+        histogramRepository.lockOrCreate(assigneeId, new LogHistogram().toBytes());
+        SolveTimeHistogram histogram = histogramRepository.findForUpdate(assigneeId);
+        histogram.setSketch(LogHistogram.fromBytes(histogram.getSketch())
+                .record(minutesBetween(postedAt, closedAt))
+                .toBytes());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TicketAverageSolveTimeDto> getSolveTimesByEmployee() {
+        return histogramRepository.findByRole(UserRole.ROLE_EMPLOYEE).stream()
+                .map(SolveTimeStatsService::toDto)
+                .filter(dto -> dto.getCount() > 0)
+                .sorted(Comparator.comparing(TicketAverageSolveTimeDto::getDays).reversed())
+                .toList();
+    }
+
+    private static TicketAverageSolveTimeDto toDto(SolveTimeHistogramRow row) {
+        LogHistogram histogram = LogHistogram.fromBytes(row.getSketch());
+        return new TicketAverageSolveTimeDtoImpl(row.getName(), histogram.getMean() / MINUTES_PER_DAY,
+                histogram.getCount(), histogram.getMin(), histogram.getMax(), histogram.quantile(0.5),
+                histogram.quantile(0.9), histogram.quantile(0.99));
+    }
+
+    private static long minutesBetween(LocalDateTime postedAt, LocalDateTime closedAt) {
+        return Math.max(0, Duration.between(postedAt, closedAt).toMinutes());
+    }
+}
@@ -0,0 +1,294 @@
+package com.hegetomi.taskify.service;
+
+import com.hegetomi.taskify.dto.manager.CumulativeFlowDto;
+import com.hegetomi.taskify.dto.manager.StatusFlowRow;
+import com.hegetomi.taskify.dto.manager.StatusTimeDto;
+import com.hegetomi.taskify.dto.manager.StatusTimeRow;
+import com.hegetomi.taskify.entity.StatusFlowId;
+import com.hegetomi.taskify.enums.Status;
+import com.hegetomi.taskify.exception.InvalidDateRangeException;
+import com.hegetomi.taskify.repository.StatusFlowRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Folds the status transition log into daily per-assignee, per-status counters. A scheduled refresh replays
+ * the transitions not yet marked as processed: they are split into partitions by ticket id, so every ticket's
+ * transitions stay in order within one partition, and the partitions are replayed in parallel. Time spent in a
+ * status is booked on the day the ticket leaves it, to the assignee it had when it entered.
+ * Rows are selected by their flag rather than past an id watermark, so a transaction that got its id earlier
+ * but committed later than a processed row is picked up by the next run instead of being skipped. Transitions
+ * of one ticket are written under its row lock, so they still commit in id order. Reads serve what the last
+ * refresh folded in and may lag the transition log by up to one refresh interval.
+ * <p>
+ * Tickets that existed before the log was introduced are seeded from their Envers history, one transition per
+ * audited status change. Tickets whose history does not reach back to their creation are left out and only
+ * enter the analytics with their next status change.
+ */
+@Service
+@Slf4j
+public class StatusAnalyticsService {
+
+    private static final String WATERMARK = "status-flow";
+    private static final int ENTERED = 0;
+    private static final int EXITED = 1;
+    private static final int EXITED_MINUTES = 2;
+    private static final String SELECT_TRANSITIONS = "select id, ticket_id, assignee_id, to_status, transitioned_at " +
+            "from ticket_status_transitions where processed = false order by id limit ?";
+    private static final String UPSERT_FLOW = "insert into status_flows " +
+            "(bucket_date, assignee_id, status, entered, exited, exited_minutes) values (?, ?, ?, ?, ?, ?) " +
+            "on duplicate key update entered = entered + values(entered), exited = exited + values(exited), " +
+            "exited_minutes = exited_minutes + values(exited_minutes)";
+    private static final String UPSERT_STATE = "insert into ticket_status_states " +
+            "(ticket_id, assignee_id, status, entered_at) values (?, ?, ?, ?) on duplicate key update " +
+            "assignee_id = values(assignee_id), status = values(status), entered_at = values(entered_at)";
+
+    private final int batchSize;
+    private final int partitions;
+    private final Duration refreshInterval;
+    private final long maxRangeDays;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StatusFlowRepository flowRepository;
+    private ScheduledExecutorService scheduler;
+
+    public StatusAnalyticsService(@Value("${taskify.analytics.batch-size:5000}") int batchSize,
+                                  @Value("${taskify.analytics.partitions:8}") int partitions,
+                                  @Value("${taskify.analytics.refresh-interval:1m}") Duration refreshInterval,
+                                  @Value("${taskify.analytics.max-range-days:366}") long maxRangeDays,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  StatusFlowRepository flowRepository) {
+        this.batchSize = batchSize;
+        this.partitions = partitions;
+        this.refreshInterval = refreshInterval;
+        this.maxRangeDays = maxRangeDays;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flowRepository = flowRepository;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (refreshInterval.isZero() || refreshInterval.isNegative()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "status-analytics-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, refreshInterval.toMillis(), refreshInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public List<StatusTimeDto> getTimeInStatus(LocalDate from, LocalDate to, Long assigneeId) {
+        checkRange(from, to);
+        Map<Status, StatusTimeRow> rows = flowRepository.sumTimeInStatus(from, to, assigneeId).stream()
+                .collect(Collectors.toMap(StatusTimeRow::getStatus, row -> row));
+        List<StatusTimeDto> result = new ArrayList<>();
+        for (Status status : Status.values()) {
+            StatusTimeRow row = rows.get(status);
+            long tickets = row == null ? 0 : row.getTickets();
+            long minutes = row == null ? 0 : row.getMinutes();
+            result.add(new StatusTimeDto(status, tickets, minutes, tickets == 0 ? 0 : (double) minutes / tickets));
+        }
+        return result;
+    }
+
+    public List<CumulativeFlowDto> getCumulativeFlow(LocalDate from, LocalDate to, Long assigneeId) {
+        checkRange(from, to);
+        Map<Status, Long> running = new EnumMap<>(Status.class);
+        for (StatusFlowRow row : flowRepository.sumFlowBefore(from, assigneeId)) {
+            running.put(row.getStatus(), row.getCount());
+        }
+        Map<LocalDate, List<StatusFlowRow>> days = flowRepository.sumFlowByDay(from, to, assigneeId).stream()
+                .collect(Collectors.groupingBy(StatusFlowRow::getDay));
+        List<CumulativeFlowDto> result = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            for (StatusFlowRow row : days.getOrDefault(day, Collections.emptyList())) {
+                running.merge(row.getStatus(), row.getCount(), Long::sum);
+            }
+            for (Status status : Status.values()) {
+                result.add(new CumulativeFlowDto(day, status, running.getOrDefault(status, 0L)));
+            }
+        }
+        return result;
+    }
+
+    public synchronized int refresh() {
+        int total = 0;
+        int processed;
+        do {
+            processed = transactionTemplate.execute(status -> refreshBatch());
+            total += processed;
+        } while (processed == batchSize);
+        return total;
+    }
+
+    private void run() {
+        try {
+            int processed = refresh();
+            if (processed > 0) {
+                log.debug("Folded {} status transitions into the status flows", processed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Status analytics refresh failed", e);
+        }
+    }
+
+    private int refreshBatch() {
+        jdbcTemplate.update("insert into analytics_watermarks (name, last_id) values (?, 0) " +
+                "on duplicate key update last_id = last_id", WATERMARK);
+        jdbcTemplate.queryForObject(
+                "select last_id from analytics_watermarks where name = ? for update", Long.class, WATERMARK);
+        List<Transition> transitions = jdbcTemplate.query(SELECT_TRANSITIONS, (rs, rowNum) -> new Transition(
+                rs.getLong("id"),
+                rs.getLong("ticket_id"),
+                rs.getObject("assignee_id") == null ? TicketRollupListener.UNASSIGNED : rs.getLong("assignee_id"),
+                rs.getString("to_status") == null ? null : Status.valueOf(rs.getString("to_status")),
+                rs.getTimestamp("transitioned_at").toLocalDateTime()), batchSize);
+        if (transitions.isEmpty()) {
+            return 0;
+        }
+        Set<Long> ticketIds = transitions.stream().map(t -> t.ticketId).collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, State> states = loadStates(ticketIds);
+        Map<StatusFlowId, long[]> deltas = transitions.stream()
+                .collect(Collectors.groupingBy(t -> Math.floorMod(t.ticketId, partitions)))
+                .values()
+                .parallelStream()
+                .map(partition -> replay(partition, states))
+                .reduce(StatusAnalyticsService::merge)
+                .orElseGet(HashMap::new);
+        writeFlows(deltas);
+        writeStates(ticketIds, states);
+        jdbcTemplate.batchUpdate("update ticket_status_transitions set processed = true where id = ?",
+                transitions.stream().map(t -> new Object[]{t.id}).toList());
+        jdbcTemplate.update("update analytics_watermarks set last_id = greatest(last_id, ?) where name = ?",
+                transitions.get(transitions.size() - 1).id, WATERMARK);
+        return transitions.size();
+    }
+
+    private Map<Long, State> loadStates(Set<Long> ticketIds) {
+        Map<Long, State> states = new ConcurrentHashMap<>();
+        String placeholders = String.join(",", Collections.nCopies(ticketIds.size(), "?"));
+        jdbcTemplate.query("select ticket_id, assignee_id, status, entered_at from ticket_status_states " +
+                "where ticket_id in (" + placeholders + ")", rs -> {
+            states.put(rs.getLong("ticket_id"), new State(rs.getLong("assignee_id"),
+                    Status.valueOf(rs.getString("status")), rs.getTimestamp("entered_at").toLocalDateTime()));
+        }, ticketIds.toArray());
+        return states;
+    }
+
+    private static Map<StatusFlowId, long[]> replay(List<Transition> partition, Map<Long, State> states) {
+        Map<StatusFlowId, long[]> deltas = new HashMap<>();
+        for (Transition transition : partition) {
+            LocalDate day = transition.at.toLocalDate();
+            State current = states.remove(transition.ticketId);
+            if (current != null) {
+                long[] exit = deltas.computeIfAbsent(new StatusFlowId(day, current.assigneeId, current.status),
+                        key -> new long[3]);
+                exit[EXITED]++;
+                exit[EXITED_MINUTES] += Math.max(0, Duration.between(current.enteredAt, transition.at).toMinutes());
+            }
+            if (transition.to != null) {
+                states.put(transition.ticketId, new State(transition.assigneeId, transition.to, transition.at));
+                deltas.computeIfAbsent(new StatusFlowId(day, transition.assigneeId, transition.to),
+                        key -> new long[3])[ENTERED]++;
+            }
+        }
+        return deltas;
+    }
+
+    private static Map<StatusFlowId, long[]> merge(Map<StatusFlowId, long[]> into, Map<StatusFlowId, long[]> other) {
+        other.forEach((id, counts) -> into.merge(id, counts, (a, b) -> {
+            for (int i = 0; i < a.length; i++) {
+                a[i] += b[i];
+            }
+            return a;
+        }));
+        return into;
+    }
+
+    private void writeFlows(Map<StatusFlowId, long[]> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((id, counts) -> rows.add(new Object[]{id.getBucketDate(), id.getAssigneeId(),
+                id.getStatus().name(), counts[ENTERED], counts[EXITED], counts[EXITED_MINUTES]}));
+        jdbcTemplate.batchUpdate(UPSERT_FLOW, rows);
+    }
+
+    private void writeStates(Set<Long> ticketIds, Map<Long, State> states) {
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (Long ticketId : ticketIds) {
+            State state = states.get(ticketId);
+            if (state == null) {
+                deletes.add(new Object[]{ticketId});
+            } else {
+                upserts.add(new Object[]{ticketId, state.assigneeId, state.status.name(),
+                        Timestamp.valueOf(state.enteredAt)});
+            }
+        }
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_STATE, upserts);
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("delete from ticket_status_states where ticket_id = ?", deletes);
+        }
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new InvalidDateRangeException();
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Transition {
+        private final long id;
+        private final long ticketId;
+        private final long assigneeId;
+        private final Status to;
+        private final LocalDateTime at;
+    }
+
+    @AllArgsConstructor
+    private static class State {
+        private final long assigneeId;
+        private final Status status;
+        private final LocalDateTime enteredAt;
+    }
+}
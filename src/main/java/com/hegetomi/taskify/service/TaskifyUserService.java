@@ -2,29 +2,38 @@ package com.hegetomi.taskify.service;
 
 import com.hegetomi.taskify.command.EditUserRightsCommand;
 import com.hegetomi.taskify.command.LoginCommand;
+import com.hegetomi.taskify.command.RefreshTokenCommand;
 import com.hegetomi.taskify.command.RegisterCommand;
 import com.hegetomi.taskify.command.UpdateUserPasswordCommand;
 import com.hegetomi.taskify.dto.*;
 import com.hegetomi.taskify.dto.manager.TicketAverageSolveTimeDto;
 import com.hegetomi.taskify.dto.manager.TicketSolveRateDto;
+import com.hegetomi.taskify.dto.manager.CumulativeFlowDto;
+import com.hegetomi.taskify.dto.manager.StatusTimeDto;
+import com.hegetomi.taskify.dto.manager.TicketThroughputDto;
 import com.hegetomi.taskify.entity.User;
+import com.hegetomi.taskify.enums.RollupGranularity;
 import com.hegetomi.taskify.enums.UserRole;
 import com.hegetomi.taskify.exception.InvalidOldPasswordException;
+import com.hegetomi.taskify.exception.InvalidRefreshTokenException;
 import com.hegetomi.taskify.exception.UserExistsException;
 import com.hegetomi.taskify.mapper.UserMapper;
 import com.hegetomi.taskify.repository.TaskifyUserRepository;
 import com.hegetomi.taskify.security.JwtService;
+import com.hegetomi.taskify.security.SecurityVersionChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 
 
@@ -38,14 +47,31 @@ public class TaskifyUserService {
     private final JwtService jwtService;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SolveTimeStatsService solveTimeStatsService;
+    private final TicketRollupService ticketRollupService;
+    private final StatusAnalyticsService statusAnalyticsService;
     private static final String USER_NOT_FOUND = "User was not found";
+    private static final String TOKENS_ISSUED = "taskify.auth.tokens";
+    private static final String GRANT = "grant";
 
     public JwtTokenDto login(LoginCommand loginCommand) {
         Authentication auth = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginCommand.getUsername(), loginCommand.getPassword()));
-        JwtTokenDto token = new JwtTokenDto();
-        token.setJwt(jwtService.createJwtToken((UserDetails) auth.getPrincipal()));
-        return token;
+        User user = (User) auth.getPrincipal();
+        meterRegistry.counter(TOKENS_ISSUED, GRANT, "password").increment();
+        return new JwtTokenDto(jwtService.createJwtToken(user), refreshTokenService.issue(user.getId()));
+    }
+
+    @Transactional
+    public JwtTokenDto refresh(RefreshTokenCommand refreshTokenCommand) {
+        Long userId = refreshTokenService.consume(refreshTokenCommand.getRefreshToken());
+        User user = repository.findById(userId)
+                .orElseThrow(InvalidRefreshTokenException::new);
+        meterRegistry.counter(TOKENS_ISSUED, GRANT, "refresh_token").increment();
+        return new JwtTokenDto(jwtService.createJwtToken(user), refreshTokenService.issue(userId));
     }
 
     public RegisterDto register(RegisterCommand registerCommand) {
@@ -77,6 +103,8 @@ public class TaskifyUserService {
                 .orElseThrow(() -> new AuthenticationCredentialsNotFoundException(USER_NOT_FOUND));
         if (passwordEncoder.matches(updateUserPasswordCommand.getOldPassword(), user.getPassword())) {
             user.setPassword(passwordEncoder.encode(updateUserPasswordCommand.getNewPassword()));
+            refreshTokenService.revokeAll(user.getId());
+            increaseSecurityVersion(user);
             return userMapper.userToDto(user);
         }
         throw new InvalidOldPasswordException();
@@ -97,16 +125,34 @@ public class TaskifyUserService {
             user.getTickets().clear();
         }
         user.setRoles(editUserRightsCommand.getUserRoles());
+        increaseSecurityVersion(user);
 
         return userMapper.userToDto(user);
     }
 
+    private void increaseSecurityVersion(User user) {
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
+        eventPublisher.publishEvent(new SecurityVersionChangedEvent(user.getId(), user.getSecurityVersion()));
+    }
+
     public List<TicketSolveRateDto> getTicketStatsByUser(boolean open) {
         return open ? repository.getOpenTicketStats()
                 : repository.getClosedTicketStats();
     }
 
     public List<TicketAverageSolveTimeDto> getAverageSolveTimes() {
-        return repository.getAverageSolveTimes();
+        return solveTimeStatsService.getSolveTimesByEmployee();
+    }
+
+    public List<TicketThroughputDto> getThroughput(LocalDate from, LocalDate to, RollupGranularity granularity) {
+        return ticketRollupService.getThroughput(from, to, granularity);
+    }
+
+    public List<StatusTimeDto> getTimeInStatus(LocalDate from, LocalDate to, Long assigneeId) {
+        return statusAnalyticsService.getTimeInStatus(from, to, assigneeId);
+    }
+
+    public List<CumulativeFlowDto> getCumulativeFlow(LocalDate from, LocalDate to, Long assigneeId) {
+        return statusAnalyticsService.getCumulativeFlow(from, to, assigneeId);
     }
 }
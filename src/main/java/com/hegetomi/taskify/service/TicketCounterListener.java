@@ -0,0 +1,101 @@
+package com.hegetomi.taskify.service;
+
+import com.hegetomi.taskify.entity.Ticket;
+import com.hegetomi.taskify.entity.User;
+import com.hegetomi.taskify.enums.Status;
+import com.hegetomi.taskify.util.BeforeCommitBatchListener;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Keeps ticket_counters in step with open and closed tickets per assignee. Every ticket write, whichever
+ * service method made it, is turned into counter deltas that are applied in one upsert batch right before
+ * commit, so the counters commit or roll back with the ticket change. Bulk updates bypass this listener and
+ * are only corrected by {@link TicketCounterReconciler}.
+ */
+@Component
+@Slf4j
+public class TicketCounterListener extends BeforeCommitBatchListener<SortedMap<Long, long[]>> {
+
+    static final String UPSERT_COUNTER = "insert into ticket_counters (user_id, open_count, closed_count) " +
+            "values (?, ?, ?) on duplicate key update open_count = open_count + values(open_count), " +
+            "closed_count = closed_count + values(closed_count)";
+    private static final int OPEN = 0;
+    private static final int CLOSED = 1;
+
+    public TicketCounterListener(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Ticket) {
+            count(event.getSession(), event.getPersister(), event.getState(), 1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Ticket)) {
+            return;
+        }
+        if (event.getOldState() == null) {
+            log.debug("No loaded state for ticket {}, counters are left to reconciliation", event.getId());
+            return;
+        }
+        count(event.getSession(), event.getPersister(), event.getOldState(), -1);
+        count(event.getSession(), event.getPersister(), event.getState(), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Ticket) {
+            count(event.getSession(), event.getPersister(), event.getDeletedState(), -1);
+        }
+    }
+
+    private void count(EventSource session, EntityPersister persister, Object[] state, int delta) {
+        User assignee = (User) state[persister.getEntityMetamodel().getPropertyIndex("assignee")];
+        Status status = (Status) state[persister.getEntityMetamodel().getPropertyIndex("status")];
+        if (assignee == null || status == null) {
+            return;
+        }
+        long[] counts = batch(session).computeIfAbsent(assignee.getId(), id -> new long[2]);
+        counts[status == Status.DONE ? CLOSED : OPEN] += delta;
+    }
+
+    @Override
+    protected SortedMap<Long, long[]> newBatch() {
+        return new TreeMap<>();
+    }
+
+    @Override
+    protected void write(Connection connection, SortedMap<Long, long[]> deltas) throws SQLException {
+        deltas.values().removeIf(counts -> counts[OPEN] == 0 && counts[CLOSED] == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT_COUNTER)) {
+            for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+                statement.setLong(1, entry.getKey());
+                statement.setLong(2, entry.getValue()[OPEN]);
+                statement.setLong(3, entry.getValue()[CLOSED]);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.hegetomi.taskify.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Corrects ticket_counters and ticket_rollups against the tickets table on a fixed interval, fixing any drift
+ * from writes that bypass {@link TicketCounterListener} and {@link TicketRollupListener}. The expected values
+ * and the current counters are read in one non-locking statement under READ COMMITTED and only the differences
+ * are added back with the listeners' upsert, so ticket writes are never blocked by the scan and increments
+ * committed after the read are kept.
+ */
+@Component
+@Slf4j
+public class TicketCounterReconciler {
+
+    private static final String SELECT_COUNTER_DRIFT = "select user_id, sum(open_count) as open_count, " +
+            "sum(closed_count) as closed_count from (" +
+            "select assignee_id as user_id, sum(status <> 'DONE') as open_count, sum(status = 'DONE') as closed_count " +
+            "from tickets where assignee_id is not null and status is not null group by assignee_id " +
+            "union all " +
+            "select user_id, -open_count, -closed_count from ticket_counters" +
+            ") counts group by user_id having sum(open_count) <> 0 or sum(closed_count) <> 0 order by user_id";
+
+    private final Duration interval;
+    private final JdbcTemplate jdbcTemplate;
+    private final TicketRollupService ticketRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService scheduler;
+
+    public TicketCounterReconciler(@Value("${taskify.ticket.counters.reconcile-interval:1d}") Duration interval,
+                                   JdbcTemplate jdbcTemplate,
+                                   TicketRollupService ticketRollupService,
+                                   PlatformTransactionManager transactionManager) {
+        this.interval = interval;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ticketRollupService = ticketRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "ticket-counter-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public int reconcile() {
+        return transactionTemplate.execute(status -> {
+            List<Object[]> drift = jdbcTemplate.query(SELECT_COUNTER_DRIFT, (rs, rowNum) -> new Object[]{
+                    rs.getLong("user_id"), rs.getLong("open_count"), rs.getLong("closed_count")});
+            if (!drift.isEmpty()) {
+                jdbcTemplate.batchUpdate(TicketCounterListener.UPSERT_COUNTER, drift);
+            }
+            return drift.size();
+        });
+    }
+
+    private void run() {
+        try {
+            log.info("Corrected ticket counters of {} assignees", reconcile());
+            log.info("Corrected {} ticket rollup buckets", ticketRollupService.reconcile());
+        } catch (RuntimeException e) {
+            log.error("Ticket counter reconciliation failed", e);
+        }
+    }
+}
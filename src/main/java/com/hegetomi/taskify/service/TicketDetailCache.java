@@ -0,0 +1,188 @@
+package com.hegetomi.taskify.service;
+
+import com.hegetomi.taskify.dto.SerializedTicketDetail;
+import com.hegetomi.taskify.dto.TicketDto;
+import com.hegetomi.taskify.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, time-limited cache of ticket details. Loads take a stamp of the ticket's stripe before reading the
+ * database and only keep their result if no invalidation hit that stripe in between, so a slow reader cannot
+ * put back a detail that a concurrent commit already evicted, while writes to other tickets leave the load
+ * alone. The serialized response body is attached to the entry of the same version, so repeated reads skip
+ * both mapping and JSON serialization. Once full, the oldest entries are evicted first.
+ * <p>
+ * Local commits evict entries right away, but writes made on other instances are not seen here. A hit is
+ * therefore only served after checking the ticket's version in the database; since every ticket and comment
+ * write bumps it, a stale entry is dropped and counts as a miss, and ETags stay valid for If-None-Match across
+ * instances. Only writes that bypass the version, such as plain SQL, can be served stale, for at most the TTL.
+ * <p>
+ * A request counts once on the hit/miss counter: {@link #getSerialized} only counts a hit, on a miss the
+ * caller falls back to {@link #get}, which counts the outcome.
+ */
+@Component
+public class TicketDetailCache {
+
+    private static final int STRIPES = 1024;
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final TicketRepository ticketRepository;
+    private final Map<Long, CachedDetail> entries = new ConcurrentHashMap<>();
+    private final Queue<CachedDetail> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+    private final Counter hits;
+    private final Counter misses;
+
+    public TicketDetailCache(@Value("${taskify.ticket.cache.enabled:true}") boolean enabled,
+                             @Value("${taskify.ticket.cache.max-size:10000}") int maxSize,
+                             @Value("${taskify.ticket.cache.ttl:5m}") Duration ttl,
+                             TicketRepository ticketRepository,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.ticketRepository = ticketRepository;
+        this.hits = meterRegistry.counter("taskify.ticket.cache", "result", "hit");
+        this.misses = meterRegistry.counter("taskify.ticket.cache", "result", "miss");
+        Gauge.builder("taskify.ticket.cache.size", this, TicketDetailCache::size).register(meterRegistry);
+    }
+
+    public Optional<TicketDto> get(Long ticketId) {
+        CachedDetail cached = find(ticketId);
+        if (cached == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached.getDetail());
+    }
+
+    public Optional<SerializedTicketDetail> getSerialized(Long ticketId) {
+        CachedDetail cached = find(ticketId);
+        if (cached == null || cached.getSerialized() == null) {
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached.getSerialized());
+    }
+
+    public void putSerialized(Long ticketId, SerializedTicketDetail serialized) {
+        CachedDetail cached = enabled ? entries.get(ticketId) : null;
+        if (cached != null && Objects.equals(cached.getDetail().getVersion(), serialized.getVersion())) {
+            cached.setSerialized(serialized);
+        }
+    }
+
+    public long stamp(Long ticketId) {
+        return invalidations.get(stripe(ticketId));
+    }
+
+    public void put(Long ticketId, TicketDto detail, long stamp) {
+        if (!enabled || stamp != stamp(ticketId)) {
+            return;
+        }
+        CachedDetail cached = new CachedDetail(ticketId, detail, System.nanoTime() + ttlNanos);
+        entries.put(ticketId, cached);
+        if (stamp != stamp(ticketId)) {
+            entries.remove(ticketId, cached);
+            return;
+        }
+        insertionOrder.add(cached);
+        queued.incrementAndGet();
+        while (entries.size() > maxSize) {
+            CachedDetail oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            queued.decrementAndGet();
+            entries.remove(oldest.getTicketId(), oldest);
+        }
+        if (queued.get() > 2 * maxSize) {
+            compact();
+        }
+    }
+
+    public void evict(Long ticketId) {
+        invalidations.incrementAndGet(stripe(ticketId));
+        entries.remove(ticketId);
+    }
+
+    public void clear() {
+        for (int i = 0; i < STRIPES; i++) {
+            invalidations.incrementAndGet(i);
+        }
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private CachedDetail find(Long ticketId) {
+        CachedDetail cached = enabled ? entries.get(ticketId) : null;
+        if (cached != null && (cached.isExpired(System.nanoTime()) || !isCurrent(cached))) {
+            entries.remove(ticketId, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    private boolean isCurrent(CachedDetail cached) {
+        return ticketRepository.findVersionById(cached.getTicketId())
+                .filter(version -> version.equals(cached.getDetail().getVersion()))
+                .isPresent();
+    }
+
+    private synchronized void compact() {
+        if (queued.get() <= 2 * maxSize) {
+            return;
+        }
+        insertionOrder.removeIf(cached -> {
+            if (entries.get(cached.getTicketId()) != cached) {
+                queued.decrementAndGet();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static int stripe(Long ticketId) {
+        return Long.hashCode(ticketId * 0x9E3779B97F4A7C15L) & (STRIPES - 1);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class CachedDetail {
+        private final Long ticketId;
+        private final TicketDto detail;
+        private final long expiresAt;
+        private volatile SerializedTicketDetail serialized;
+
+        void setSerialized(SerializedTicketDetail serialized) {
+            this.serialized = serialized;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
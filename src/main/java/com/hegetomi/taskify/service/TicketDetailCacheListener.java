@@ -0,0 +1,44 @@
+package com.hegetomi.taskify.service;
+
+import com.hegetomi.taskify.entity.Comment;
+import com.hegetomi.taskify.entity.Ticket;
+import com.hegetomi.taskify.security.SecurityVersionChangedEvent;
+import com.hegetomi.taskify.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class TicketDetailCacheListener {
+
+    private final TicketDetailCache cache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Long ticketId = ticketIdOf(entity);
+        if (ticketId != null) {
+            AfterCommit.run(() -> cache.evict(ticketId));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onSecurityVersionChanged(SecurityVersionChangedEvent event) {
+        cache.clear();
+    }
+
+    private static Long ticketIdOf(Object entity) {
+        if (entity instanceof Ticket ticket) {
+            return ticket.getId();
+        }
+        if (entity instanceof Comment comment && comment.getTicket() != null) {
+            return comment.getTicket().getId();
+        }
+        return null;
+    }
+}
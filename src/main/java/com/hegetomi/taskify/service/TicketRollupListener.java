@@ -0,0 +1,137 @@
+package com.hegetomi.taskify.service;
+
+import com.hegetomi.taskify.entity.Ticket;
+import com.hegetomi.taskify.entity.TicketRollupId;
+import com.hegetomi.taskify.entity.User;
+import com.hegetomi.taskify.enums.Status;
+import com.hegetomi.taskify.util.BeforeCommitBatchListener;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.tuple.entity.EntityMetamodel;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Keeps ticket_rollups equal to what {@link TicketRollupService#reconcile()} derives from the current
+ * tickets: every ticket adds an opened count to the day it was posted and, once DONE, a closed count and its
+ * solve time to the day it was closed, both under its current assignee, priority and type. A ticket write
+ * removes the old contribution and adds the new one, applied as one upsert batch right before commit.
+ */
+@Component
+@Slf4j
+public class TicketRollupListener extends BeforeCommitBatchListener<SortedMap<TicketRollupId, long[]>> {
+
+    static final long UNASSIGNED = 0L;
+    static final String UNSET = "";
+    static final String UPSERT_ROLLUP = "insert into ticket_rollups " +
+            "(bucket_date, assignee_id, priority, ticket_type, opened, closed, solve_minutes) " +
+            "values (?, ?, ?, ?, ?, ?, ?) on duplicate key update opened = opened + values(opened), " +
+            "closed = closed + values(closed), solve_minutes = solve_minutes + values(solve_minutes)";
+    private static final Comparator<TicketRollupId> KEY_ORDER = Comparator.comparing(TicketRollupId::getBucketDate)
+            .thenComparing(TicketRollupId::getAssigneeId)
+            .thenComparing(TicketRollupId::getPriority)
+            .thenComparing(TicketRollupId::getType);
+    private static final int OPENED = 0;
+    private static final int CLOSED = 1;
+    private static final int SOLVE_MINUTES = 2;
+
+    public TicketRollupListener(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Ticket) {
+            contribute(event.getSession(), event.getPersister(), event.getState(), 1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Ticket)) {
+            return;
+        }
+        if (event.getOldState() == null) {
+            log.debug("No loaded state for ticket {}, rollups are left to the reconciler", event.getId());
+            return;
+        }
+        contribute(event.getSession(), event.getPersister(), event.getOldState(), -1);
+        contribute(event.getSession(), event.getPersister(), event.getState(), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Ticket) {
+            contribute(event.getSession(), event.getPersister(), event.getDeletedState(), -1);
+        }
+    }
+
+    private void contribute(EventSource session, EntityPersister persister, Object[] state, int sign) {
+        EntityMetamodel metamodel = persister.getEntityMetamodel();
+        LocalDateTime postedAt = (LocalDateTime) state[metamodel.getPropertyIndex("postedAt")];
+        LocalDateTime closedAt = (LocalDateTime) state[metamodel.getPropertyIndex("closureDate")];
+        User assignee = (User) state[metamodel.getPropertyIndex("assignee")];
+        Enum<?> priority = (Enum<?>) state[metamodel.getPropertyIndex("priority")];
+        Enum<?> type = (Enum<?>) state[metamodel.getPropertyIndex("type")];
+        Status status = (Status) state[metamodel.getPropertyIndex("status")];
+        long assigneeId = assignee == null ? UNASSIGNED : assignee.getId();
+        String priorityName = priority == null ? UNSET : priority.name();
+        String typeName = type == null ? UNSET : type.name();
+
+        SortedMap<TicketRollupId, long[]> deltas = batch(session);
+        if (postedAt != null) {
+            deltas.computeIfAbsent(new TicketRollupId(postedAt.toLocalDate(), assigneeId, priorityName, typeName),
+                    key -> new long[3])[OPENED] += sign;
+        }
+        if (status == Status.DONE && closedAt != null) {
+            long[] closed = deltas.computeIfAbsent(
+                    new TicketRollupId(closedAt.toLocalDate(), assigneeId, priorityName, typeName),
+                    key -> new long[3]);
+            closed[CLOSED] += sign;
+            long solveMinutes = postedAt == null ? 0 : Math.max(0, Duration.between(postedAt, closedAt).toMinutes());
+            closed[SOLVE_MINUTES] += sign * solveMinutes;
+        }
+    }
+
+    @Override
+    protected SortedMap<TicketRollupId, long[]> newBatch() {
+        return new TreeMap<>(KEY_ORDER);
+    }
+
+    @Override
+    protected void write(Connection connection, SortedMap<TicketRollupId, long[]> deltas) throws SQLException {
+        deltas.values().removeIf(values -> values[OPENED] == 0 && values[CLOSED] == 0 && values[SOLVE_MINUTES] == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT_ROLLUP)) {
+            for (Map.Entry<TicketRollupId, long[]> entry : deltas.entrySet()) {
+                TicketRollupId key = entry.getKey();
+                statement.setDate(1, Date.valueOf(key.getBucketDate()));
+                statement.setLong(2, key.getAssigneeId());
+                statement.setString(3, key.getPriority());
+                statement.setString(4, key.getType());
+                statement.setLong(5, entry.getValue()[OPENED]);
+                statement.setLong(6, entry.getValue()[CLOSED]);
+                statement.setLong(7, entry.getValue()[SOLVE_MINUTES]);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
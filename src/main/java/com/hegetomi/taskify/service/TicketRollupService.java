@@ -0,0 +1,124 @@
+package com.hegetomi.taskify.service;
+
+import com.hegetomi.taskify.dto.manager.TicketThroughputDto;
+import com.hegetomi.taskify.entity.TicketRollup;
+import com.hegetomi.taskify.entity.TicketRollupId;
+import com.hegetomi.taskify.entity.User;
+import com.hegetomi.taskify.enums.Priority;
+import com.hegetomi.taskify.enums.RollupGranularity;
+import com.hegetomi.taskify.enums.Type;
+import com.hegetomi.taskify.exception.InvalidDateRangeException;
+import com.hegetomi.taskify.repository.TaskifyUserRepository;
+import com.hegetomi.taskify.repository.TicketRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TicketRollupService {
+
+    private static final Comparator<TicketThroughputDto> ORDER = Comparator.comparing(TicketThroughputDto::getBucket)
+            .thenComparing(TicketThroughputDto::getName, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(TicketThroughputDto::getPriority, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(TicketThroughputDto::getType, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private static final String SELECT_ROLLUP_DRIFT = "select bucket_date, assignee_id, priority, ticket_type, " +
+            "sum(opened) as opened, sum(closed) as closed, sum(solve_minutes) as solve_minutes from (" +
+            "select date(posted_at) as bucket_date, coalesce(assignee_id, 0) as assignee_id, " +
+            "coalesce(priority, '') as priority, coalesce(ticket_type, '') as ticket_type, " +
+            "1 as opened, 0 as closed, 0 as solve_minutes from tickets " +
+            "union all " +
+            "select date(closed_at), coalesce(assignee_id, 0), coalesce(priority, ''), coalesce(ticket_type, ''), " +
+            "0, 1, greatest(timestampdiff(minute, posted_at, closed_at), 0) from tickets " +
+            "where status = 'DONE' and closed_at is not null " +
+            "union all " +
+            "select bucket_date, assignee_id, priority, ticket_type, -opened, -closed, -solve_minutes from ticket_rollups" +
+            ") events group by bucket_date, assignee_id, priority, ticket_type " +
+            "having sum(opened) <> 0 or sum(closed) <> 0 or sum(solve_minutes) <> 0 " +
+            "order by bucket_date, assignee_id, priority, ticket_type";
+
+    private final TicketRollupRepository rollupRepository;
+    private final TaskifyUserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (rollupRepository.count() == 0) {
+            log.info("Ticket rollups backfilled into {} buckets", rollupRepository.rebuildFromTickets());
+        }
+    }
+
+    /**
+     * Adds the difference between the rollups derived from the tickets table and the stored ones. Both sides are
+     * read in one non-locking statement, so the scan does not hold locks on tickets and concurrent listener
+     * increments committed after it are kept.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public int reconcile() {
+        List<Object[]> drift = jdbcTemplate.query(SELECT_ROLLUP_DRIFT, (rs, rowNum) -> new Object[]{
+                rs.getDate("bucket_date"), rs.getLong("assignee_id"), rs.getString("priority"),
+                rs.getString("ticket_type"), rs.getLong("opened"), rs.getLong("closed"), rs.getLong("solve_minutes")});
+        if (!drift.isEmpty()) {
+            jdbcTemplate.batchUpdate(TicketRollupListener.UPSERT_ROLLUP, drift);
+        }
+        return drift.size();
+    }
+
+    @Transactional(readOnly = true)
+    public List<TicketThroughputDto> getThroughput(LocalDate from, LocalDate to, RollupGranularity granularity) {
+        if (from.isAfter(to)) {
+            throw new InvalidDateRangeException();
+        }
+        if (granularity == RollupGranularity.WEEK) {
+            from = from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            to = to.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+        }
+        List<TicketRollup> rollups = rollupRepository.findByBucketDateBetween(from, to);
+        Set<Long> assigneeIds = rollups.stream()
+                .map(rollup -> rollup.getId().getAssigneeId())
+                .filter(id -> id != TicketRollupListener.UNASSIGNED)
+                .collect(Collectors.toSet());
+        Map<Long, String> names = userRepository.findAllById(assigneeIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getName));
+        Map<TicketRollupId, TicketThroughputDto> buckets = new HashMap<>();
+        for (TicketRollup rollup : rollups) {
+            TicketRollupId id = rollup.getId();
+            LocalDate bucket = granularity == RollupGranularity.WEEK
+                    ? id.getBucketDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    : id.getBucketDate();
+            TicketThroughputDto dto = buckets.computeIfAbsent(
+                    new TicketRollupId(bucket, id.getAssigneeId(), id.getPriority(), id.getType()),
+                    key -> new TicketThroughputDto(bucket, names.get(key.getAssigneeId()),
+                            enumValue(Priority.class, key.getPriority()), enumValue(Type.class, key.getType()), 0, 0, 0));
+            dto.setOpened(dto.getOpened() + rollup.getOpened());
+            dto.setClosed(dto.getClosed() + rollup.getClosed());
+            dto.setSolveMinutes(dto.getSolveMinutes() + rollup.getSolveMinutes());
+        }
+        return buckets.values().stream()
+                .filter(dto -> dto.getOpened() != 0 || dto.getClosed() != 0)
+                .sorted(ORDER)
+                .toList();
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String name) {
+        return TicketRollupListener.UNSET.equals(name) ? null : Enum.valueOf(type, name);
+    }
+}
@@ -1,33 +1,70 @@
 package com.hegetomi.taskify.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hegetomi.taskify.audit.AuditArchive;
+import com.hegetomi.taskify.command.BatchTicketCommand;
+import com.hegetomi.taskify.command.BatchTicketUpdateCommand;
 import com.hegetomi.taskify.command.EditAssignedTicketCommand;
 import com.hegetomi.taskify.command.EditSubmittedTicketCommand;
 import com.hegetomi.taskify.command.NewTicketCommand;
+import com.hegetomi.taskify.dto.CursorPage;
+import com.hegetomi.taskify.dto.SerializedTicketDetail;
 import com.hegetomi.taskify.dto.TicketDto;
+import com.hegetomi.taskify.dto.TicketFieldChangeDto;
 import com.hegetomi.taskify.dto.TicketHistoryDto;
+import com.hegetomi.taskify.dto.TicketRevision;
+import com.hegetomi.taskify.dto.TicketSummary;
+import com.hegetomi.taskify.dto.UserRoleDto;
+import com.hegetomi.taskify.entity.Comment;
 import com.hegetomi.taskify.entity.Ticket;
 import com.hegetomi.taskify.entity.User;
 import com.hegetomi.taskify.enums.Status;
 import com.hegetomi.taskify.enums.UserRole;
 import com.hegetomi.taskify.exception.TicketNotFoundException;
+import com.hegetomi.taskify.exception.TicketVersionMismatchException;
 import com.hegetomi.taskify.exception.UserNotFoundException;
+import com.hegetomi.taskify.mapper.CommentMapper;
 import com.hegetomi.taskify.mapper.TicketMapper;
+import com.hegetomi.taskify.repository.CommentRepository;
 import com.hegetomi.taskify.repository.TaskifyUserRepository;
 import com.hegetomi.taskify.repository.TicketRepository;
+import com.hegetomi.taskify.security.TicketAccessContext;
+import com.hegetomi.taskify.util.KeysetCursor;
+import com.hegetomi.taskify.util.PageSizePolicy;
 import com.hegetomi.taskify.util.TimeMachine;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
-import org.hibernate.envers.AuditReaderFactory;
-import org.hibernate.envers.DefaultRevisionEntity;
-import org.hibernate.envers.query.AuditEntity;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.hibernate.envers.RevisionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.UncheckedIOException;
 import java.security.Principal;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -37,10 +74,23 @@ public class TicketService {
     private final TaskifyUserRepository userRepository;
     private final TicketMapper ticketMapper;
     private final TimeMachine timeMachine;
+    private final TicketAccessContext ticketAccessContext;
+    private final PageSizePolicy pageSizePolicy;
+    private final TicketDetailCache ticketDetailCache;
+    private final ObjectMapper objectMapper;
+    private final CommentRepository commentRepository;
+    private final CommentMapper commentMapper;
+    private final AuditArchive auditArchive;
+    private final SolveTimeStatsService solveTimeStatsService;
     private static final String NOT_FOUND = "Requested ticket is not found";
+    private static final int CLAIM_CANDIDATES = 64;
+    private static final int EXPORT_CHUNK = 500;
+    private static final Map<String, Function<TicketRevision, Object>> HISTORY_FIELDS = historyFields();
 
     @PersistenceContext
     private final EntityManager entityManager;
+    @Value("${taskify.ticket.detail.latest-comments:20}")
+    private int latestComments;
 
 
     public TicketDto createNewTicket(NewTicketCommand ticketCommand, Principal principal) {
@@ -48,56 +98,275 @@ public class TicketService {
         ticket.setPoster(userRepository.findByName(principal.getName()).orElse(null));
         ticket.setStatus(Status.BACKLOG);
         ticket.setPostedAt(timeMachine.getTime());
-        return ticketMapper.modelToDto(ticketRepository.save(ticket));
+        return ticketMapper.modelToDetailDto(ticketRepository.save(ticket), List.of(), 0);
     }
 
-    public List<TicketDto> getSubmittedTickets(String username, boolean full) {
-        Optional<String> queryParam =
-                full ? Optional.empty() : Optional.of(Status.DONE.toString());
-        return ticketMapper.modelsToDtos(ticketRepository.findAllByPosterName(username, queryParam));
+    @Transactional
+    public List<TicketDto> createNewTickets(BatchTicketCommand batchCommand, Principal principal) {
+        User poster = userRepository.findByName(principal.getName()).orElse(null);
+        LocalDateTime postedAt = timeMachine.getTime();
+        List<Ticket> tickets = batchCommand.getTickets().stream()
+                .map(command -> {
+                    Ticket ticket = ticketMapper.commandToModel(command);
+                    ticket.setPoster(poster);
+                    ticket.setStatus(Status.BACKLOG);
+                    ticket.setPostedAt(postedAt);
+                    return ticket;
+                })
+                .toList();
+        return ticketMapper.modelsToDtos(ticketRepository.saveAll(tickets));
+    }
+
+    @Transactional
+    public List<TicketDto> updateTickets(BatchTicketUpdateCommand batchCommand) {
+        Set<Long> ids = new HashSet<>(batchCommand.getTicketIds());
+        List<Ticket> tickets = ticketRepository.findAllById(ids);
+        if (tickets.size() != ids.size()) {
+            throw new TicketNotFoundException(NOT_FOUND);
+        }
+        User assignee = batchCommand.getAssigneeId() == null ? null
+                : userRepository.findByIdAndRolesContaining(batchCommand.getAssigneeId(), UserRole.ROLE_EMPLOYEE)
+                .orElseThrow(UserNotFoundException::new);
+        for (Ticket ticket : tickets) {
+            if (assignee != null) {
+                ticket.setAssignee(assignee);
+            }
+            if (batchCommand.getStatus() != null) {
+                applyStatus(ticket, batchCommand.getStatus());
+            }
+        }
+        entityManager.flush();
+        return ticketMapper.modelsToDtos(tickets);
+    }
+
+    public CursorPage<TicketDto> getSubmittedTickets(String username, boolean full, List<Status> status,
+                                                     String cursor, Integer size) {
+        Set<Status> statuses = resolveStatuses(full, status);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = pageSizePolicy.resolve(size);
+        return toPage(ticketRepository.findPageByPosterName(username, statuses, after.getTime(), after.getId(),
+                PageRequest.of(0, pageSize + 1)), pageSize);
     }
 
     @Transactional
     public TicketDto editSubmittedTicketDetail(Long id, EditSubmittedTicketCommand ticketCommand) {
-        Ticket requestedTicket = ticketRepository.findById(id)
-                .orElseThrow(() -> new TicketNotFoundException(NOT_FOUND));
+        return editSubmittedTicketDetail(id, null, ticketCommand);
+    }
+
+    @Transactional
+    public TicketDto editSubmittedTicketDetail(Long id, Collection<Long> expectedVersions, EditSubmittedTicketCommand ticketCommand) {
+        Ticket requestedTicket = findForUpdate(id, expectedVersions);
         updateSubmission(ticketCommand, requestedTicket);
-        return ticketMapper.modelToDto(requestedTicket);
+        entityManager.flush();
+        return toDetail(requestedTicket);
     }
 
-    public List<TicketDto> getAssignedTickets(String username, boolean full) {
-        Optional<String> queryParam =
-                full ? Optional.empty() : Optional.of(Status.DONE.toString());
-        return ticketMapper.modelsToDtos(ticketRepository.findAllByAssigneeName(username, queryParam));
+    public CursorPage<TicketDto> getAssignedTickets(String username, boolean full, List<Status> status,
+                                                    String cursor, Integer size) {
+        Set<Status> statuses = resolveStatuses(full, status);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = pageSizePolicy.resolve(size);
+        return toPage(ticketRepository.findPageByAssigneeName(username, statuses, after.getTime(), after.getId(),
+                PageRequest.of(0, pageSize + 1)), pageSize);
     }
 
     public TicketDto getTicketDetail(Long id) {
-        Ticket requestedTicket = ticketRepository.findByIdWithComments(id)
-                .orElseThrow(() -> new TicketNotFoundException(NOT_FOUND));
-        return ticketMapper.modelToDto(requestedTicket);
+        return ticketDetailCache.get(id).orElseGet(() -> loadTicketDetail(id));
+    }
+
+    public SerializedTicketDetail getSerializedTicketDetail(Long id) {
+        return ticketDetailCache.getSerialized(id).orElseGet(() -> serializeTicketDetail(id));
+    }
+
+    private SerializedTicketDetail serializeTicketDetail(Long id) {
+        TicketDto detail = getTicketDetail(id);
+        try {
+            SerializedTicketDetail serialized = new SerializedTicketDetail(detail.getVersion(),
+                    objectMapper.writeValueAsBytes(detail));
+            ticketDetailCache.putSerialized(id, serialized);
+            return serialized;
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TicketDto loadTicketDetail(Long id) {
+        Optional<Ticket> authorizedTicket = ticketAccessContext.find(id);
+        if (authorizedTicket.isPresent()) {
+            return toDetail(authorizedTicket.get());
+        }
+        long stamp = ticketDetailCache.stamp(id);
+        TicketDto detail = toDetail(ticketRepository.findDetailById(id)
+                .orElseThrow(() -> new TicketNotFoundException(NOT_FOUND)));
+        ticketDetailCache.put(id, detail, stamp);
+        return detail;
     }
 
     @Transactional
     public TicketDto editAssignedTicketDetail(Long id, EditAssignedTicketCommand ticketCommand) {
-        Ticket requestedTicket = ticketRepository.findById(id)
-                .orElseThrow(() -> new TicketNotFoundException(NOT_FOUND));
+        return editAssignedTicketDetail(id, null, ticketCommand);
+    }
+
+    @Transactional
+    public TicketDto editAssignedTicketDetail(Long id, Collection<Long> expectedVersions, EditAssignedTicketCommand ticketCommand) {
+        Ticket requestedTicket = findForUpdate(id, expectedVersions);
         updateAssigned(ticketCommand, requestedTicket);
-        return ticketMapper.modelToDto(requestedTicket);
+        entityManager.flush();
+        return toDetail(requestedTicket);
+    }
+
+    public CursorPage<TicketDto> getUnassignedTickets(String cursor, Integer size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = pageSizePolicy.resolve(size);
+        return toPage(ticketRepository.findPageByAssigneeNull(after.getTime(), after.getId(),
+                PageRequest.of(0, pageSize + 1)), pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportSubmittedTickets(String username, boolean full, List<Status> status, Consumer<TicketDto> sink) {
+        Set<Status> statuses = resolveStatuses(full, status);
+        try (Stream<TicketSummary> tickets = ticketRepository.streamAllByPosterName(username, statuses)) {
+            exportInChunks(tickets, sink);
+        }
+    }
 
+    @Transactional(readOnly = true)
+    public void exportAssignedTickets(String username, boolean full, List<Status> status, Consumer<TicketDto> sink) {
+        Set<Status> statuses = resolveStatuses(full, status);
+        try (Stream<TicketSummary> tickets = ticketRepository.streamAllByAssigneeName(username, statuses)) {
+            exportInChunks(tickets, sink);
+        }
     }
 
-    public List<TicketDto> getUnassignedTickets() {
-        return ticketMapper.modelsToDtos(ticketRepository.findAllByAssigneeNull());
+    @Transactional(readOnly = true)
+    public void exportUnassignedTickets(Consumer<TicketDto> sink) {
+        try (Stream<TicketSummary> tickets = ticketRepository.streamAllByAssigneeNull()) {
+            exportInChunks(tickets, sink);
+        }
     }
 
     @Transactional
     public TicketDto assignToUser(Long ticketId, Long user) {
-        Ticket requestedTicket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new TicketNotFoundException(NOT_FOUND));
+        Ticket requestedTicket = findForUpdate(ticketId, null);
         User selectedUser = userRepository.findByIdAndRolesContaining(user, UserRole.ROLE_EMPLOYEE)
                 .orElseThrow(UserNotFoundException::new);
         requestedTicket.setAssignee(selectedUser);
-        return ticketMapper.modelToDto(requestedTicket);
+        entityManager.flush();
+        return toDetail(requestedTicket);
+    }
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Optional<TicketDto> claimNextTicket(String username) {
+        Set<Long> tried = new HashSet<>();
+        List<Long> candidates;
+        do {
+            candidates = tried.isEmpty()
+                    ? ticketRepository.findClaimCandidates(CLAIM_CANDIDATES)
+                    : ticketRepository.findClaimCandidatesExcluding(tried, CLAIM_CANDIDATES);
+            for (Long candidate : candidates) {
+                tried.add(candidate);
+                if (ticketRepository.lockIfUnassigned(candidate).isPresent()) {
+                    Ticket ticket = ticketRepository.findById(candidate)
+                            .orElseThrow(() -> new TicketNotFoundException(NOT_FOUND));
+                    ticket.setAssignee(userRepository.findByName(username).orElseThrow(UserNotFoundException::new));
+                    entityManager.flush();
+                    return Optional.of(toDetail(ticket));
+                }
+            }
+        } while (candidates.size() == CLAIM_CANDIDATES);
+        return Optional.empty();
+    }
+
+    private TicketDto toDetail(Ticket ticket) {
+        List<Comment> latest = new ArrayList<>(commentRepository.findLatestByTicketId(ticket.getId(),
+                PageRequest.of(0, latestComments)));
+        Collections.reverse(latest);
+        long commentCount = latest.size() < latestComments
+                ? latest.size()
+                : commentRepository.countByTicketId(ticket.getId());
+        return ticketMapper.modelToDetailDto(ticket, commentMapper.modelsToDtos(latest), commentCount);
+    }
+
+    private static Map<String, Function<TicketRevision, Object>> historyFields() {
+        Map<String, Function<TicketRevision, Object>> fields = new LinkedHashMap<>();
+        fields.put("title", TicketRevision::getTitle);
+        fields.put("description", TicketRevision::getDescription);
+        fields.put("postedAt", TicketRevision::getPostedAt);
+        fields.put("priority", TicketRevision::getPriority);
+        fields.put("type", TicketRevision::getType);
+        fields.put("status", TicketRevision::getStatus);
+        fields.put("closedAt", TicketRevision::getClosedAt);
+        fields.put("posterId", TicketRevision::getPosterId);
+        fields.put("assigneeId", TicketRevision::getAssigneeId);
+        return fields;
+    }
+
+    private static Set<Status> resolveStatuses(boolean full, List<Status> status) {
+        if (status != null && !status.isEmpty()) {
+            return EnumSet.copyOf(status);
+        }
+        return full ? EnumSet.allOf(Status.class) : EnumSet.complementOf(EnumSet.of(Status.DONE));
+    }
+
+    private CursorPage<TicketDto> toPage(List<TicketSummary> tickets, int pageSize) {
+        List<TicketSummary> page = tickets.size() <= pageSize ? tickets : tickets.subList(0, pageSize);
+        List<TicketDto> items = ticketMapper.summariesToDtos(page, loadRoles(page));
+        if (tickets.size() <= pageSize) {
+            return new CursorPage<>(items, null);
+        }
+        TicketSummary last = page.get(pageSize - 1);
+        return new CursorPage<>(items, new KeysetCursor(last.getPostedAt(), last.getId()).encode());
+    }
+
+    private void exportInChunks(Stream<TicketSummary> tickets, Consumer<TicketDto> sink) {
+        List<TicketSummary> chunk = new ArrayList<>(EXPORT_CHUNK);
+        tickets.forEach(ticket -> {
+            chunk.add(ticket);
+            if (chunk.size() == EXPORT_CHUNK) {
+                exportChunk(chunk, sink);
+            }
+        });
+        exportChunk(chunk, sink);
+    }
+
+    private void exportChunk(List<TicketSummary> chunk, Consumer<TicketDto> sink) {
+        Map<Long, List<UserRole>> roles = loadRoles(chunk);
+        chunk.forEach(ticket -> sink.accept(ticketMapper.summaryToDto(ticket, roles)));
+        chunk.clear();
+    }
+
+    private Map<Long, List<UserRole>> loadRoles(List<TicketSummary> tickets) {
+        Set<Long> userIds = new HashSet<>();
+        for (TicketSummary ticket : tickets) {
+            if (ticket.getPosterId() != null) {
+                userIds.add(ticket.getPosterId());
+            }
+            if (ticket.getAssigneeId() != null) {
+                userIds.add(ticket.getAssigneeId());
+            }
+        }
+        return userIds.isEmpty() ? Map.of() : rolesByUser(userRepository.findRolesByUserIdIn(userIds));
+    }
+
+    private static Map<Long, List<UserRole>> rolesByUser(List<UserRoleDto> roles) {
+        return roles.stream().collect(Collectors.groupingBy(UserRoleDto::getUserId,
+                Collectors.mapping(UserRoleDto::getRole, Collectors.toList())));
+    }
+
+    private Ticket findForUpdate(Long id, Collection<Long> expectedVersions) {
+        Ticket ticket = ticketAccessContext.find(id)
+                .map(this::reattach)
+                .or(() -> ticketRepository.findById(id))
+                .orElseThrow(() -> new TicketNotFoundException(NOT_FOUND));
+        if (expectedVersions != null && !expectedVersions.contains(ticket.getVersion())) {
+            throw new TicketVersionMismatchException();
+        }
+        return ticket;
+    }
+
+    private Ticket reattach(Ticket ticket) {
+        entityManager.unwrap(Session.class).lock(ticket, LockMode.NONE);
+        return ticket;
     }
 
     private void updateSubmission(EditSubmittedTicketCommand ticketCommand, Ticket requestedTicket) {
@@ -112,37 +381,77 @@ public class TicketService {
         requestedTicket.setDescription(ticketCommand.getDescription());
         requestedTicket.setTitle(ticketCommand.getTitle());
         requestedTicket.setPriority(ticketCommand.getPriority());
-        requestedTicket.setStatus(ticketCommand.getStatus());
-        if (requestedTicket.getStatus().equals(Status.DONE)) {
-            requestedTicket.setClosureDate(timeMachine.getTime());
+        applyStatus(requestedTicket, ticketCommand.getStatus());
+    }
+
+    private void applyStatus(Ticket ticket, Status status) {
+        boolean solved = status.equals(Status.DONE) && ticket.getStatus() != Status.DONE;
+        ticket.setStatus(status);
+        if (status.equals(Status.DONE)) {
+            ticket.setClosureDate(timeMachine.getTime());
+            if (solved && ticket.getAssignee() != null) {
+                solveTimeStatsService.recordSolved(ticket.getAssignee().getId(), ticket.getPostedAt(),
+                        ticket.getClosureDate());
+            }
         } else {
-            requestedTicket.setClosureDate(null);
+            ticket.setClosureDate(null);
         }
     }
 
-    @SuppressWarnings("unchecked")
-    @Transactional
-    public List<TicketHistoryDto> findTicketHistoryById(Long id) {
-        return AuditReaderFactory.get(entityManager)
-                .createQuery()
-                .forRevisionsOfEntity(Ticket.class, false, true)
-                .add(AuditEntity.property("id").eq(id))
-                .getResultList()
-                .stream()
-                .map(auditObject -> mapTicketHistoryDto((Object[]) auditObject))
-                .toList();
+    @Transactional(readOnly = true)
+    public CursorPage<TicketHistoryDto> findTicketHistoryById(Long id, Integer cursor, Integer size) {
+        int pageSize = pageSizePolicy.resolve(size);
+        int fromRev = cursor == null ? 0 : cursor;
+        List<TicketRevision> revisions = findRevisions(id, fromRev, pageSize + 2);
+        TicketRevision previous = null;
+        List<TicketHistoryDto> page = new ArrayList<>(pageSize);
+        for (TicketRevision revision : revisions) {
+            if (cursor != null && revision.getRev() == fromRev) {
+                previous = revision;
+                continue;
+            }
+            if (page.size() == pageSize) {
+                return new CursorPage<>(page, String.valueOf(previous.getRev()));
+            }
+            page.add(toHistoryDto(previous, revision));
+            previous = revision;
+        }
+        return new CursorPage<>(page, null);
     }
 
+    /**
+     * Reads the archived revisions first, then the rest from the audit tables. The archiver prunes the tables
+     * right after it advances {@code archivedThrough}, so if that moved during the read, revisions between the
+     * old and the new value may be missing from the table part and the read is repeated.
+     */
+    private List<TicketRevision> findRevisions(Long id, int fromRev, int limit) {
+        while (true) {
+            int archivedThrough = auditArchive.archivedThrough();
+            List<TicketRevision> revisions = new ArrayList<>(
+                    auditArchive.findRevisions(id, fromRev, archivedThrough, limit));
+            if (revisions.size() < limit) {
+                revisions.addAll(ticketRepository.findRevisions(id, Math.max(fromRev, archivedThrough + 1),
+                        limit - revisions.size()));
+            }
+            if (archivedThrough == auditArchive.archivedThrough()) {
+                return revisions;
+            }
+        }
+    }
 
-    private TicketHistoryDto mapTicketHistoryDto(Object[] auditObject) {
-        DefaultRevisionEntity revEntity = (DefaultRevisionEntity) auditObject[1];
-        Ticket currentTicket = (Ticket) auditObject[0];
-        TicketDto currentTicketAsDto = ticketMapper.modelToDto(currentTicket);
-        TicketHistoryDto ticketHistoryDto = new TicketHistoryDto();
-        ticketHistoryDto.setTicketDto(currentTicketAsDto);
-        ticketHistoryDto.setRevisionDate(revEntity.getRevisionDate().toInstant()
+    private static TicketHistoryDto toHistoryDto(TicketRevision previous, TicketRevision current) {
+        List<TicketFieldChangeDto> changes = new ArrayList<>();
+        HISTORY_FIELDS.forEach((field, value) -> {
+            Object from = previous == null ? null : value.apply(previous);
+            Object to = value.apply(current);
+            if (!Objects.equals(from, to)) {
+                changes.add(new TicketFieldChangeDto(field, from, to));
+            }
+        });
+        LocalDateTime revisionDate = Instant.ofEpochMilli(current.getRevisionTimestamp())
                 .atZone(ZoneId.systemDefault())
-                .toLocalDateTime());
-        return ticketHistoryDto;
+                .toLocalDateTime();
+        return new TicketHistoryDto(current.getRev(), revisionDate,
+                RevisionType.fromRepresentation(current.getRevisionType()), changes);
     }
 }
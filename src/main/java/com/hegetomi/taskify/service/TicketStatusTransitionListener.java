@@ -0,0 +1,109 @@
+package com.hegetomi.taskify.service;
+
+import com.hegetomi.taskify.entity.Ticket;
+import com.hegetomi.taskify.entity.User;
+import com.hegetomi.taskify.enums.Status;
+import com.hegetomi.taskify.util.TimeMachine;
+import com.hegetomi.taskify.util.BeforeCommitBatchListener;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends a row to ticket_status_transitions whenever a ticket is created, changes status or is deleted.
+ * Rows are written in one batch right before commit, in the same transaction as the ticket change, and are
+ * the only input of {@link StatusAnalyticsService}.
+ */
+@Component
+public class TicketStatusTransitionListener extends BeforeCommitBatchListener<List<TicketStatusTransitionListener.Transition>> {
+
+    private static final String INSERT_TRANSITION = "insert into ticket_status_transitions " +
+            "(ticket_id, assignee_id, from_status, to_status, transitioned_at) values (?, ?, ?, ?, ?)";
+
+    private final TimeMachine timeMachine;
+
+    public TicketStatusTransitionListener(EntityManagerFactory entityManagerFactory, TimeMachine timeMachine) {
+        super(entityManagerFactory);
+        this.timeMachine = timeMachine;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Ticket ticket && ticket.getStatus() != null) {
+            batch(event.getSession()).add(new Transition(ticket.getId(), idOf(ticket.getAssignee()), null,
+                    ticket.getStatus(), ticket.getPostedAt()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Ticket ticket) || event.getOldState() == null) {
+            return;
+        }
+        Status from = (Status) event.getOldState()[event.getPersister().getEntityMetamodel().getPropertyIndex("status")];
+        if (from != ticket.getStatus()) {
+            batch(event.getSession()).add(new Transition(ticket.getId(), idOf(ticket.getAssignee()), from,
+                    ticket.getStatus(), timeMachine.getTime()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Ticket ticket && ticket.getStatus() != null) {
+            batch(event.getSession()).add(new Transition(ticket.getId(), idOf(ticket.getAssignee()),
+                    ticket.getStatus(), null, timeMachine.getTime()));
+        }
+    }
+
+    @Override
+    protected List<Transition> newBatch() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    protected void write(Connection connection, List<Transition> transitions) throws SQLException {
+        if (transitions.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_TRANSITION)) {
+            for (Transition transition : transitions) {
+                statement.setLong(1, transition.ticketId);
+                if (transition.assigneeId == null) {
+                    statement.setNull(2, Types.BIGINT);
+                } else {
+                    statement.setLong(2, transition.assigneeId);
+                }
+                statement.setString(3, transition.from == null ? null : transition.from.name());
+                statement.setString(4, transition.to == null ? null : transition.to.name());
+                statement.setTimestamp(5, Timestamp.valueOf(transition.at));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static Long idOf(User user) {
+        return user == null ? null : user.getId();
+    }
+
+    @AllArgsConstructor
+    static class Transition {
+        private final Long ticketId;
+        private final Long assigneeId;
+        private final Status from;
+        private final Status to;
+        private final LocalDateTime at;
+    }
+}
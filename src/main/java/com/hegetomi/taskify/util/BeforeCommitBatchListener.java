@@ -0,0 +1,86 @@
+package com.hegetomi.taskify.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base of the entity listeners that derive rows of their own tables from entity writes. Whatever a
+ * transaction changes is collected per session into one batch, which is written over the session's connection
+ * right before commit, so the derived rows commit or roll back together with the change itself.
+ *
+ * @param <B> the batch collected for one transaction
+ */
+public abstract class BeforeCommitBatchListener<B>
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Map<EventSource, B> pending = new ConcurrentHashMap<>();
+
+    protected BeforeCommitBatchListener(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    public void register() {
+        if (!isEnabled()) {
+            return;
+        }
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    protected boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Returns the batch of the session's current transaction, starting one on the first change.
+     */
+    protected B batch(EventSource session) {
+        return pending.computeIfAbsent(session, this::begin);
+    }
+
+    protected abstract B newBatch();
+
+    protected abstract void write(Connection connection, B batch) throws SQLException;
+
+    protected void afterCompletion(boolean success) {
+    }
+
+    private B begin(EventSource session) {
+        session.getActionQueue().registerProcess(completing -> {
+            B batch = pending.get(session);
+            if (batch != null) {
+                session.doWork(connection -> write(connection, batch));
+            }
+        });
+        session.getActionQueue().registerProcess((boolean success, SharedSessionContractImplementor completed) -> {
+            pending.remove(session);
+            afterCompletion(success);
+        });
+        return newBatch();
+    }
+}
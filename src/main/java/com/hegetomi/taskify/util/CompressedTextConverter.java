@@ -0,0 +1,103 @@
+package com.hegetomi.taskify.util;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores text as a header byte followed by either the raw UTF-8 bytes or, above {@link #THRESHOLD} bytes,
+ * the same layout as MariaDB's {@code COMPRESS()}: a 4 byte little-endian length and a zlib stream.
+ * Sharing the layout lets the migration compress existing rows in SQL.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    public static final int THRESHOLD = 1024;
+    private static final byte PLAIN = 0;
+    private static final byte COMPRESSED = 1;
+    private static final int LENGTH_BYTES = 4;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length > THRESHOLD) {
+            byte[] compressed = compress(raw);
+            if (compressed.length < raw.length) {
+                return compressed;
+            }
+        }
+        byte[] stored = new byte[raw.length + 1];
+        stored[0] = PLAIN;
+        System.arraycopy(raw, 0, stored, 1, raw.length);
+        return stored;
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] stored) {
+        if (stored == null) {
+            return null;
+        }
+        if (stored.length == 0) {
+            return "";
+        }
+        return switch (stored[0]) {
+            case PLAIN -> new String(stored, 1, stored.length - 1, StandardCharsets.UTF_8);
+            case COMPRESSED -> new String(decompress(stored), StandardCharsets.UTF_8);
+            default -> throw new IllegalStateException("Unknown text storage format " + stored[0]);
+        };
+    }
+
+    private static byte[] compress(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+        out.write(COMPRESSED);
+        out.write(raw.length);
+        out.write(raw.length >>> 8);
+        out.write(raw.length >>> 16);
+        out.write((raw.length >>> 24) & 0x3F);
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] stored) {
+        int length = (stored[1] & 0xFF)
+                | (stored[2] & 0xFF) << 8
+                | (stored[3] & 0xFF) << 16
+                | (stored[4] & 0x3F) << 24;
+        byte[] raw = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored, 1 + LENGTH_BYTES, stored.length - 1 - LENGTH_BYTES);
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed text");
+                }
+                read += inflated;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
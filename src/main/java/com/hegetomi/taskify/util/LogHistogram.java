@@ -0,0 +1,157 @@
+package com.hegetomi.taskify.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable histogram of non-negative values in logarithmic buckets, so any quantile it reports is within
+ * {@link #RELATIVE_ACCURACY} of a recorded value. Only occupied buckets are kept and encoded, which keeps
+ * the stored form small however many values are recorded. Count, sum, min and max are exact.
+ * Not thread-safe, callers guard it themselves.
+ */
+public class LogHistogram {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final byte FORMAT = 1;
+
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long zeroCount;
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public LogHistogram record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        if (value == 0) {
+            zeroCount++;
+        } else {
+            buckets.merge(indexOf(value), 1L, Long::sum);
+        }
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        return this;
+    }
+
+    public LogHistogram merge(LogHistogram other) {
+        other.buckets.forEach((index, bucketCount) -> buckets.merge(index, bucketCount, Long::sum));
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public long quantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.floor(quantile * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (rank < seen) {
+                long estimate = Math.round(2 * Math.pow(GAMMA, bucket.getKey()) / (GAMMA + 1));
+                return Math.max(min, Math.min(max, estimate));
+            }
+        }
+        return max;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 + buckets.size() * 3);
+        out.write(FORMAT);
+        writeVarLong(out, count);
+        writeVarLong(out, zeroCount);
+        writeVarLong(out, sum);
+        writeVarLong(out, getMin());
+        writeVarLong(out, getMax());
+        writeVarLong(out, buckets.size());
+        int previous = 0;
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            writeVarLong(out, bucket.getKey() - previous);
+            writeVarLong(out, bucket.getValue());
+            previous = bucket.getKey();
+        }
+        return out.toByteArray();
+    }
+
+    public static LogHistogram fromBytes(byte[] bytes) {
+        LogHistogram histogram = new LogHistogram();
+        if (bytes == null || bytes.length == 0) {
+            return histogram;
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.get() != FORMAT) {
+            throw new IllegalStateException("Unknown histogram format " + bytes[0]);
+        }
+        histogram.count = readVarLong(in);
+        histogram.zeroCount = readVarLong(in);
+        histogram.sum = readVarLong(in);
+        long min = readVarLong(in);
+        long max = readVarLong(in);
+        if (histogram.count > 0) {
+            histogram.min = min;
+            histogram.max = max;
+        }
+        long size = readVarLong(in);
+        int index = 0;
+        for (long i = 0; i < size; i++) {
+            index += (int) readVarLong(in);
+            histogram.buckets.put(index, readVarLong(in));
+        }
+        return histogram;
+    }
+
+    private static int indexOf(long value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed histogram");
+    }
+}
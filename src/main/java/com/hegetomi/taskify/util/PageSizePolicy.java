@@ -0,0 +1,24 @@
+package com.hegetomi.taskify.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PageSizePolicy {
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public PageSizePolicy(@Value("${taskify.pagination.default-size:50}") int defaultSize,
+                          @Value("${taskify.pagination.max-size:500}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    public int resolve(Integer requested) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        return Math.max(1, Math.min(requested, maxSize));
+    }
+}
@@ -0,0 +1,43 @@
+package com.hegetomi.taskify.util;
+
+import com.hegetomi.taskify.exception.InvalidETagException;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class VersionETag {
+
+    private static final Pattern TAG = Pattern.compile("(W/)?\"(\\d{1,18})\"");
+
+    private VersionETag() {
+    }
+
+    public static String format(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Returns the versions listed in an If-Match header, or {@code null} when the header is absent or {@code *}.
+     * Anything that is not a comma separated list of quoted versions is rejected. If-Match uses strong comparison
+     * (RFC 7232 section 3.1), so weak tags are accepted but never match; a header of only weak tags yields an
+     * empty set and fails the precondition.
+     */
+    public static Set<Long> parse(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new LinkedHashSet<>();
+        for (String tag : ifMatch.split(",", -1)) {
+            Matcher matcher = TAG.matcher(tag.trim());
+            if (!matcher.matches()) {
+                throw new InvalidETagException();
+            }
+            if (matcher.group(1) == null) {
+                versions.add(Long.parseLong(matcher.group(2)));
+            }
+        }
+        return versions;
+    }
+}
@@ -0,0 +1 @@
+create index idx_audit_outbox_tx_key on audit_outbox (tx_key);
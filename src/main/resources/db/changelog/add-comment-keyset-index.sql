@@ -0,0 +1 @@
+create index idx_comments_ticket_date on comments (ticket_id, comment_date, id);
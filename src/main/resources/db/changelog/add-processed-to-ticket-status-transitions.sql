@@ -0,0 +1,8 @@
+alter table ticket_status_transitions add column processed boolean not null default false;
+
+update ticket_status_transitions t
+    join analytics_watermarks w on w.name = 'status-flow'
+set t.processed = true
+where t.id <= w.last_id;
+
+create index idx_ticket_status_transitions_processed on ticket_status_transitions (processed, id);
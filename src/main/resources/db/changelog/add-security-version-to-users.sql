@@ -0,0 +1,3 @@
+alter table taskify_users
+    add column
+        security_version int NOT NULL DEFAULT 0;
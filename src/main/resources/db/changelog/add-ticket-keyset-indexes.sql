@@ -0,0 +1,9 @@
+update tickets
+set posted_at = now()
+where posted_at is null;
+
+alter table tickets
+    modify posted_at datetime NOT NULL;
+
+create index idx_tickets_poster_posted on tickets (poster_id, posted_at, id);
+create index idx_tickets_assignee_posted on tickets (assignee_id, posted_at, id);
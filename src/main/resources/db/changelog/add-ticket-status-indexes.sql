@@ -0,0 +1,2 @@
+create index idx_tickets_poster_status_posted on tickets (poster_id, status, posted_at, id);
+create index idx_tickets_assignee_status_posted on tickets (assignee_id, status, posted_at, id);
@@ -0,0 +1 @@
+create index idx_tickets_aud_id_rev on tickets_aud (id, rev);
@@ -0,0 +1,3 @@
+alter table tickets
+    add column
+        version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,37 @@
+alter table comments add column value_data longblob//
+alter table comments_aud add column value_data longblob//
+
+create procedure compress_comment_values()
+begin
+    declare last_id bigint default 0;
+    declare max_id bigint;
+    select coalesce(max(id), 0) into max_id from comments;
+    while last_id < max_id do
+        update comments
+        set value_data = case
+            when octet_length(convert(value using utf8mb4)) > 1024
+                then concat(x'01', compress(convert(value using utf8mb4)))
+            else concat(x'00', convert(value using utf8mb4)) end
+        where id > last_id and id <= last_id + 10000;
+        commit;
+        set last_id = last_id + 10000;
+    end while;
+
+    set last_id = 0;
+    select coalesce(max(id), 0) into max_id from comments_aud;
+    while last_id < max_id do
+        update comments_aud
+        set value_data = concat(x'00', convert(value using utf8mb4))
+        where id > last_id and id <= last_id + 10000;
+        commit;
+        set last_id = last_id + 10000;
+    end while;
+end//
+
+call compress_comment_values()//
+drop procedure compress_comment_values//
+
+alter table comments drop column value//
+alter table comments change value_data value longblob not null//
+alter table comments_aud drop column value//
+alter table comments_aud change value_data value longblob//
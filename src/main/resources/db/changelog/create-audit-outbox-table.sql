@@ -0,0 +1,11 @@
+CREATE TABLE audit_outbox
+(
+    id                 BIGINT AUTO_INCREMENT NOT NULL,
+    tx_key             VARCHAR(36)           NOT NULL,
+    entity_type        VARCHAR(20)           NOT NULL,
+    entity_id          BIGINT                NOT NULL,
+    revision_type      TINYINT               NOT NULL,
+    revision_timestamp BIGINT                NOT NULL,
+    payload            LONGTEXT,
+    CONSTRAINT pk_audit_outbox PRIMARY KEY (id)
+);
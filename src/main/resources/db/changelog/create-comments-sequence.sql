@@ -0,0 +1,9 @@
+select coalesce(max(id), 0) + 51 into @comments_seq_start from comments;
+
+set @create_comments_seq = concat('create sequence comments_seq start with ', @comments_seq_start, ' increment by 50');
+
+prepare create_comments_seq from @create_comments_seq;
+
+execute create_comments_seq;
+
+deallocate prepare create_comments_seq;
@@ -0,0 +1,11 @@
+CREATE TABLE refresh_tokens
+(
+    id         BIGINT AUTO_INCREMENT NOT NULL,
+    token_hash VARCHAR(64)           NOT NULL,
+    user_id    BIGINT                NOT NULL,
+    expires_at datetime              NOT NULL,
+    CONSTRAINT pk_refresh_tokens PRIMARY KEY (id),
+    CONSTRAINT uc_refresh_tokens_token_hash UNIQUE (token_hash)
+);
+
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens (user_id);
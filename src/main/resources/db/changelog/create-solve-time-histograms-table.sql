@@ -0,0 +1,6 @@
+create table solve_time_histograms
+(
+    user_id bigint   not null,
+    sketch  longblob not null,
+    primary key (user_id)
+) engine = InnoDB;
@@ -0,0 +1,62 @@
+create table ticket_status_transitions
+(
+    id              bigint      not null auto_increment,
+    ticket_id       bigint      not null,
+    assignee_id     bigint,
+    from_status     varchar(10),
+    to_status       varchar(10),
+    transitioned_at datetime(6) not null,
+    recorded_at     datetime(6) not null default current_timestamp(6),
+    primary key (id)
+) engine = InnoDB;
+
+create table ticket_status_states
+(
+    ticket_id   bigint      not null,
+    assignee_id bigint      not null,
+    status      varchar(10) not null,
+    entered_at  datetime(6) not null,
+    primary key (ticket_id)
+) engine = InnoDB;
+
+create table status_flows
+(
+    bucket_date    date        not null,
+    assignee_id    bigint      not null,
+    status         varchar(10) not null,
+    entered        bigint      not null,
+    exited         bigint      not null,
+    exited_minutes bigint      not null,
+    primary key (bucket_date, assignee_id, status)
+) engine = InnoDB;
+
+create table analytics_watermarks
+(
+    name    varchar(50) not null,
+    last_id bigint      not null,
+    primary key (name)
+) engine = InnoDB;
+
+insert into ticket_status_transitions (ticket_id, assignee_id, from_status, to_status, transitioned_at)
+select h.id,
+       h.assignee_id,
+       h.from_status,
+       h.status,
+       case when h.revtype = 0 then coalesce(h.posted_at, from_unixtime(h.revtstmp / 1000))
+            else from_unixtime(h.revtstmp / 1000) end
+from (select a.id,
+             a.rev,
+             a.revtype,
+             a.assignee_id,
+             a.status,
+             a.posted_at,
+             r.revtstmp,
+             lag(a.status) over (partition by a.id order by a.rev)          as from_status,
+             first_value(a.revtype) over (partition by a.id order by a.rev) as first_revtype
+      from tickets_aud a
+               join revinfo r on r.rev = a.rev
+               join tickets t on t.id = a.id
+      where a.revtype in (0, 1)) h
+where h.first_revtype = 0
+  and not (h.status <=> h.from_status)
+order by h.rev, h.id;
@@ -0,0 +1,14 @@
+create table ticket_counters
+(
+    user_id      bigint not null,
+    open_count   bigint not null,
+    closed_count bigint not null,
+    primary key (user_id)
+) engine = InnoDB;
+insert into ticket_counters (user_id, open_count, closed_count)
+select assignee_id, sum(status <> 'DONE'), sum(status = 'DONE')
+from tickets
+where assignee_id is not null
+  and status is not null
+group by assignee_id;
+create index idx_user_roles_roles_user_id on user_roles (roles, user_id);
@@ -0,0 +1,11 @@
+create table ticket_rollups
+(
+    bucket_date   date        not null,
+    assignee_id   bigint      not null,
+    priority      varchar(20) not null,
+    ticket_type   varchar(20) not null,
+    opened        bigint      not null,
+    closed        bigint      not null,
+    solve_minutes bigint      not null,
+    primary key (bucket_date, assignee_id, priority, ticket_type)
+) engine = InnoDB;
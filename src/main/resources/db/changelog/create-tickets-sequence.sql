@@ -0,0 +1,9 @@
+select coalesce(max(id), 0) + 51 into @tickets_seq_start from tickets;
+
+set @create_tickets_seq = concat('create sequence tickets_seq start with ', @tickets_seq_start, ' increment by 50');
+
+prepare create_tickets_seq from @create_tickets_seq;
+
+execute create_tickets_seq;
+
+deallocate prepare create_tickets_seq;
@@ -0,0 +1,5 @@
+alter table comments_aud drop foreign key FKprr41p1i93lyk0qha4ab9lfdb;
+alter table tickets_aud drop foreign key FK1tdd5eyb1d15825plba3jmw8h;
+alter table revinfo partition by range (rev) (partition p_hot values less than maxvalue);
+alter table tickets_aud partition by range (rev) (partition p_hot values less than maxvalue);
+alter table comments_aud partition by range (rev) (partition p_hot values less than maxvalue);
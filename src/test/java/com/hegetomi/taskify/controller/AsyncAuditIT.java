@@ -0,0 +1,136 @@
+package com.hegetomi.taskify.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hegetomi.taskify.audit.AuditOutboxWriter;
+import com.hegetomi.taskify.audit.TicketAuditSnapshot;
+import com.hegetomi.taskify.command.EditSubmittedTicketCommand;
+import com.hegetomi.taskify.command.LoginCommand;
+import com.hegetomi.taskify.dto.JwtTokenDto;
+import com.hegetomi.taskify.dto.TicketHistoryDto;
+import com.hegetomi.taskify.entity.Ticket;
+import com.hegetomi.taskify.entity.User;
+import com.hegetomi.taskify.enums.Priority;
+import com.hegetomi.taskify.enums.Status;
+import com.hegetomi.taskify.enums.Type;
+import com.hegetomi.taskify.enums.UserRole;
+import com.hegetomi.taskify.repository.TaskifyUserRepository;
+import com.hegetomi.taskify.repository.TicketRepository;
+import com.hegetomi.taskify.service.TaskifyUserService;
+import com.hegetomi.taskify.service.TicketService;
+import org.hibernate.envers.RevisionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"taskify.audit.async.enabled=true", "taskify.audit.async.batch-size=2"})
+@Sql(statements = {"delete from audit_outbox", "delete from ticket_counters", "delete from solve_time_histograms", "delete from ticket_rollups", "delete from ticket_status_transitions", "delete from ticket_status_states", "delete from status_flows", "delete from analytics_watermarks", "delete from comments", "delete from tickets", "delete from user_roles", "delete from taskify_users"})
+class AsyncAuditIT {
+
+    @Autowired
+    WebTestClient webTestClient;
+    @Autowired
+    TaskifyUserService userService;
+    @Autowired
+    TaskifyUserRepository userRepository;
+    @Autowired
+    TicketRepository ticketRepository;
+    @Autowired
+    TicketService ticketService;
+    @Autowired
+    PasswordEncoder passwordEncoder;
+    @Autowired
+    AuditOutboxWriter auditOutboxWriter;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    User user;
+    JwtTokenDto userLoginDto;
+    static final String VALID_TITLE = "Lorem ipsu";
+    static final String VALID_DESCR = "Lorem ipsum dolor sit amet, consectetuer adipiscing elit. Aenean commodo ligula eget dolor. Aenean m";
+
+    @BeforeEach
+    public void init() {
+        user = new User(null, "user", passwordEncoder.encode("p4ssWord*"), List.of(UserRole.ROLE_USER));
+        userRepository.save(user);
+        userLoginDto = userService.login(new LoginCommand("user", "p4ssWord*"));
+    }
+
+    @Test
+    void testEditedTicketIsAuditedThroughOutbox() throws InterruptedException {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        EditSubmittedTicketCommand editCommand = new EditSubmittedTicketCommand("Lorem ipsum", VALID_DESCR, Priority.HIGH, Type.BUG);
+
+        webTestClient.put().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .bodyValue(editCommand).exchange().expectStatus().isOk();
+        awaitOutboxDrained();
+
+        List<TicketHistoryDto> history = ticketService.findTicketHistoryById(save.getId(), null, null).getItems();
+        assertThat(history).extracting(TicketHistoryDto::getRevisionType).containsExactly(RevisionType.ADD, RevisionType.MOD);
+        assertThat(history.get(1).getChanges()).singleElement()
+                .satisfies(change -> {
+                    assertThat(change.getField()).isEqualTo("title");
+                    assertThat(change.getFrom()).isEqualTo(VALID_TITLE);
+                    assertThat(change.getTo()).isEqualTo("Lorem ipsum");
+                });
+    }
+
+    @Test
+    void testTransactionCutByBatchLimitGetsOneRevision() throws InterruptedException {
+        Ticket first = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Ticket second = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Ticket third = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        awaitOutboxDrained();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            insertOutbox("tx-a", first);
+            insertOutbox("tx-b", second);
+            insertOutbox("tx-a", third);
+        });
+        auditOutboxWriter.signal();
+        awaitOutboxDrained();
+
+        assertThat(jdbcTemplate.queryForObject("select count(distinct rev) from tickets_aud where revtype = 1 and id in (?, ?)",
+                Integer.class, first.getId(), third.getId())).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(distinct rev) from tickets_aud where revtype = 1 and id in (?, ?, ?)",
+                Integer.class, first.getId(), second.getId(), third.getId())).isEqualTo(2);
+    }
+
+    private void insertOutbox(String txKey, Ticket ticket) {
+        TicketAuditSnapshot snapshot = new TicketAuditSnapshot(VALID_TITLE, VALID_DESCR, ticket.getPostedAt(),
+                Priority.LOW, Type.BUG, Status.BACKLOG, null, user.getId(), null);
+        try {
+            jdbcTemplate.update("insert into audit_outbox (tx_key, entity_type, entity_id, revision_type, revision_timestamp, payload) " +
+                            "values (?, 'TICKET', ?, 1, ?, ?)",
+                    txKey, ticket.getId(), System.currentTimeMillis(), objectMapper.writeValueAsString(snapshot));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitOutboxDrained() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (jdbcTemplate.queryForObject("select count(*) from audit_outbox", Integer.class) > 0) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            auditOutboxWriter.drainOutbox();
+            Thread.sleep(50);
+        }
+    }
+}
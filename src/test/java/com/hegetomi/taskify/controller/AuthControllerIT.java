@@ -1,6 +1,7 @@
 package com.hegetomi.taskify.controller;
 
 import com.hegetomi.taskify.command.LoginCommand;
+import com.hegetomi.taskify.command.RefreshTokenCommand;
 import com.hegetomi.taskify.command.RegisterCommand;
 import com.hegetomi.taskify.dto.JwtTokenDto;
 import com.hegetomi.taskify.dto.UserDto;
@@ -17,7 +18,7 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
-@Sql(statements = {"delete from comments","delete from tickets", "delete from user_roles", "delete from taskify_users"})
+@Sql(statements = {"delete from ticket_counters", "delete from solve_time_histograms", "delete from ticket_rollups", "delete from ticket_status_transitions", "delete from ticket_status_states", "delete from status_flows", "delete from analytics_watermarks", "delete from comments", "delete from tickets", "delete from user_roles", "delete from taskify_users"})
 class AuthControllerIT {
 
     @Autowired
@@ -127,4 +128,32 @@ class AuthControllerIT {
         assertThat(problemDetail).isNotNull().extracting(ProblemDetail::getDetail).isEqualTo("Bad credentials");
     }
 
+    @Test
+    void testRefreshTokenRotation() {
+        userService.register(new RegisterCommand("username", "pass*5Aa"));
+        JwtTokenDto loginDto = userService.login(LoginCommand.builder().username("username").password("pass*5Aa").build());
+
+        JwtTokenDto refreshed = webTestClient.post().uri("/api/auth/refresh")
+                .bodyValue(new RefreshTokenCommand(loginDto.getRefreshToken())).exchange()
+                .expectStatus().isOk()
+                .expectBody(JwtTokenDto.class).returnResult().getResponseBody();
+
+        assertThat(refreshed).isNotNull();
+        assertThat(refreshed.getJwt()).isNotNull();
+        assertThat(refreshed.getRefreshToken()).isNotNull().isNotEqualTo(loginDto.getRefreshToken());
+        webTestClient.get().uri("/api/user/me").headers(h -> h.setBearerAuth(refreshed.getJwt()))
+                .exchange().expectStatus().isOk();
+    }
+
+    @Test
+    void testRefreshTokenCannotBeReused() {
+        userService.register(new RegisterCommand("username", "pass*5Aa"));
+        JwtTokenDto loginDto = userService.login(LoginCommand.builder().username("username").password("pass*5Aa").build());
+        userService.refresh(new RefreshTokenCommand(loginDto.getRefreshToken()));
+
+        webTestClient.post().uri("/api/auth/refresh")
+                .bodyValue(new RefreshTokenCommand(loginDto.getRefreshToken())).exchange()
+                .expectStatus().isUnauthorized();
+    }
+
 }
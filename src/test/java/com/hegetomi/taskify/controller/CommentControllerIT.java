@@ -4,18 +4,25 @@ import com.hegetomi.taskify.command.*;
 import com.hegetomi.taskify.dto.CommentDto;
 import com.hegetomi.taskify.dto.JwtTokenDto;
 import com.hegetomi.taskify.dto.TicketDto;
+import com.hegetomi.taskify.entity.Comment;
 import com.hegetomi.taskify.entity.Ticket;
 import com.hegetomi.taskify.entity.User;
 import com.hegetomi.taskify.enums.Priority;
 import com.hegetomi.taskify.enums.Status;
 import com.hegetomi.taskify.enums.Type;
 import com.hegetomi.taskify.enums.UserRole;
+import com.hegetomi.taskify.exception.ServerBusyException;
+import com.hegetomi.taskify.exception.TicketNotFoundException;
+import com.hegetomi.taskify.mapper.CommentMapper;
+import com.hegetomi.taskify.repository.CommentRepository;
 import com.hegetomi.taskify.repository.TaskifyUserRepository;
 import com.hegetomi.taskify.repository.TicketRepository;
 import com.hegetomi.taskify.service.CommentService;
+import com.hegetomi.taskify.service.CommentWriteBuffer;
 import com.hegetomi.taskify.service.TaskifyUserService;
 import com.hegetomi.taskify.service.TicketService;
 import com.hegetomi.taskify.util.TimeMachine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,17 +30,28 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
-@Sql(statements = {"delete from comments", "delete from tickets", "delete from user_roles", "delete from taskify_users"})
+@Sql(statements = {"delete from ticket_counters", "delete from solve_time_histograms", "delete from ticket_rollups", "delete from ticket_status_transitions", "delete from ticket_status_states", "delete from status_flows", "delete from analytics_watermarks", "delete from comments", "delete from tickets", "delete from user_roles", "delete from taskify_users"})
 @Slf4j
 class CommentControllerIT {
 
@@ -53,6 +71,14 @@ class CommentControllerIT {
     TimeMachine timeMachine;
     @Autowired
     CommentService commentService;
+    @Autowired
+    CommentRepository commentRepository;
+    @Autowired
+    CommentMapper commentMapper;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
 
     User user;
     User otherUser;
@@ -86,7 +112,7 @@ class CommentControllerIT {
     @ParameterizedTest
     @ValueSource(strings = {"employee", "user"})
     void postNewComment(String username) {
-        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), user, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG,null));
+        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), user, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG, null, null));
         JwtTokenDto otherDto = userService.login(new LoginCommand(username, "p4ssWord*"));
         timeMachine.setTime(LocalDateTime.of(1993, 2, 28, 1, 1));
         CreateCommentCommand command = new CreateCommentCommand("Hello");
@@ -110,6 +136,184 @@ class CommentControllerIT {
 
     }
 
+    @Test
+    void postNewCommentRefreshesCachedTicketDetail() {
+        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), user, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG, null, null));
+        TicketDto before = ticketService.getTicketDetail(save.getId());
+        CreateCommentCommand command = new CreateCommentCommand("Hello");
+
+        webTestClient.post()
+                .uri(uriBuilder -> uriBuilder.path("/api/comment/forTicket/")
+                        .path(save.getId() + "")
+                        .build())
+                .bodyValue(command)
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isCreated();
+
+        TicketDto ticketDetail = ticketService.getTicketDetail(save.getId());
+        assertThat(ticketDetail.getComments()).extracting(CommentDto::getValue).containsExactly(command.getValue());
+        assertThat(ticketDetail.getVersion()).isGreaterThan(before.getVersion());
+    }
+
+    @Test
+    void getCommentsPagedByCursor() {
+        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), user, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG, null, null));
+        LocalDateTime start = LocalDateTime.of(2023, 4, 1, 10, 0);
+        saveComments(save, start, 3);
+
+        EntityExchangeResult<List<CommentDto>> firstPage = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/comment/forTicket/" + save.getId())
+                        .queryParam("size", 2)
+                        .build())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CommentDto.class).returnResult();
+        String cursor = firstPage.getResponseHeaders().getFirst(TicketController.NEXT_CURSOR_HEADER);
+        assertThat(firstPage.getResponseBody()).extracting(CommentDto::getValue).containsExactly("Comment 0", "Comment 1");
+        assertThat(cursor).isNotNull();
+
+        EntityExchangeResult<List<CommentDto>> secondPage = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/comment/forTicket/" + save.getId())
+                        .queryParam("size", 2)
+                        .queryParam("cursor", cursor)
+                        .build())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CommentDto.class).returnResult();
+        assertThat(secondPage.getResponseBody()).extracting(CommentDto::getValue).containsExactly("Comment 2");
+        assertThat(secondPage.getResponseHeaders().getFirst(TicketController.NEXT_CURSOR_HEADER)).isNull();
+    }
+
+    @Test
+    void getCommentsSince() {
+        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), user, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG, null, null));
+        LocalDateTime start = LocalDateTime.of(2023, 4, 1, 10, 0);
+        saveComments(save, start, 3);
+
+        List<CommentDto> responseBody = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/comment/forTicket/" + save.getId())
+                        .queryParam("since", start.plusMinutes(1).toString())
+                        .build())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CommentDto.class).returnResult().getResponseBody();
+
+        assertThat(responseBody).extracting(CommentDto::getValue).containsExactly("Comment 2");
+    }
+
+    @Test
+    void ticketDetailEmbedsLatestComments() {
+        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), user, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG, null, null));
+        saveComments(save, LocalDateTime.of(2023, 4, 1, 10, 0), 25);
+
+        TicketDto ticketDetail = ticketService.getTicketDetail(save.getId());
+
+        assertThat(ticketDetail.getCommentCount()).isEqualTo(25);
+        assertThat(ticketDetail.getComments()).hasSize(20);
+        assertThat(ticketDetail.getComments()).first().extracting(CommentDto::getValue).isEqualTo("Comment 5");
+        assertThat(ticketDetail.getComments()).last().extracting(CommentDto::getValue).isEqualTo("Comment 24");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void commentsAreDurableUnderConcurrentPosting(boolean writeBehind) throws Exception {
+        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), user, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG, null, null));
+        CommentWriteBuffer buffer = new CommentWriteBuffer(writeBehind, 1000, 100, 5, 10000,
+                transactionManager, commentRepository, ticketRepository, commentMapper, new SimpleMeterRegistry());
+        buffer.start();
+        int posters = 16;
+        int commentsPerPoster = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(posters);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> results = new ArrayList<>();
+        for (int i = 0; i < posters; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                List<Long> ids = new ArrayList<>();
+                for (int j = 0; j < commentsPerPoster; j++) {
+                    ids.add(buffer.write(save.getId(), "user", "Hello", timeMachine.getTime()).getId());
+                }
+                return ids;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        List<Long> ids = new ArrayList<>();
+        for (Future<List<Long>> result : results) {
+            ids.addAll(result.get(60, TimeUnit.SECONDS));
+        }
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        executor.shutdown();
+        buffer.stop();
+        log.info("Write-behind {} stored {} comments in {} ms ({} comments/sec)", writeBehind ? "on" : "off",
+                ids.size(), elapsedMillis, ids.size() * 1000L / elapsedMillis);
+
+        assertThat(ids).hasSize(posters * commentsPerPoster).doesNotHaveDuplicates().doesNotContainNull();
+        assertThat(commentRepository.countByTicketId(save.getId())).isEqualTo(posters * commentsPerPoster);
+        assertThat(ticketRepository.findById(save.getId()).orElseThrow().getVersion()).isGreaterThan(save.getVersion());
+    }
+
+    @Test
+    void writeBehindTimeoutWithdrawsQueuedCommentButWaitsForFlushInFlight() throws Exception {
+        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), user, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG, null, null));
+        CommentWriteBuffer buffer = new CommentWriteBuffer(true, 10, 1, 5, 300,
+                transactionManager, commentRepository, ticketRepository, commentMapper, new SimpleMeterRegistry());
+        buffer.start();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("select id from tickets where id = ? for update", Long.class, save.getId());
+            locked.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Future<CommentDto> inFlight = executor.submit(() -> buffer.write(save.getId(), "user", "In flight", timeMachine.getTime()));
+        Thread.sleep(200);
+        assertThatThrownBy(() -> buffer.write(save.getId(), "user", "Queued", timeMachine.getTime()))
+                .isInstanceOf(ServerBusyException.class);
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+
+        assertThat(inFlight.get(10, TimeUnit.SECONDS).getValue()).isEqualTo("In flight");
+        buffer.stop();
+        executor.shutdown();
+        assertThat(commentRepository.findAll()).extracting(Comment::getValue).containsExactly("In flight");
+    }
+
+    @Test
+    void postNewCommentToDeletedTicketNotFound() {
+        assertThatThrownBy(() -> commentService.postCommentToTicket(Long.MAX_VALUE, new CreateCommentCommand("Hello"), "user"))
+                .isInstanceOf(TicketNotFoundException.class);
+    }
+
+    @Test
+    void largeCommentIsStoredCompressed() {
+        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), user, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG, null, null));
+        String stackTrace = "java.lang.IllegalStateException: boom\n\tat com.hegetomi.taskify.Example.run(Example.java:42)\n".repeat(200);
+        CommentDto posted = commentService.postCommentToTicket(save.getId(), new CreateCommentCommand(stackTrace), "user");
+
+        Long storedBytes = jdbcTemplate.queryForObject("select octet_length(value) from comments where id = ?", Long.class, posted.getId());
+        List<CommentDto> responseBody = webTestClient.get()
+                .uri("/api/comment/forTicket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CommentDto.class).returnResult().getResponseBody();
+
+        assertThat(storedBytes).isLessThan(stackTrace.length() / 10L);
+        assertThat(responseBody).extracting(CommentDto::getValue).containsExactly(stackTrace);
+    }
+
     @Test
     void postNewCommentInvalidTicket() {
         timeMachine.setTime(LocalDateTime.of(1993, 2, 28, 1, 1));
@@ -141,7 +345,7 @@ class CommentControllerIT {
     @ParameterizedTest
     @ValueSource(strings = {"employee", "user"})
     void postNewCommentNoRole(String username) {
-        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), otherUser, otherEmployee, null, Priority.HIGH, Type.BUG, Status.BACKLOG,null));
+        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), otherUser, otherEmployee, null, Priority.HIGH, Type.BUG, Status.BACKLOG, null, null));
         JwtTokenDto otherDto = userService.login(new LoginCommand(username, "p4ssWord*"));
         timeMachine.setTime(LocalDateTime.of(1993, 2, 28, 1, 1));
         CreateCommentCommand command = new CreateCommentCommand("Hello");
@@ -159,7 +363,7 @@ class CommentControllerIT {
     @ParameterizedTest
     @ValueSource(strings = {"employee", "user"})
     void deleteExistingComment(String username) {
-        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), user, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG,null));
+        Ticket save = ticketRepository.save(new Ticket(null, VALID_TITLE, VALID_DESCR, timeMachine.getTime(), user, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG, null, null));
         JwtTokenDto otherDto = userService.login(new LoginCommand(username, "p4ssWord*"));
         CreateCommentCommand command = new CreateCommentCommand("Hello");
         CommentDto commentDto = commentService.postCommentToTicket(save.getId(), command, username);
@@ -193,6 +397,19 @@ class CommentControllerIT {
 
     }
 
+    private void saveComments(Ticket ticket, LocalDateTime start, int count) {
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            comments.add(Comment.builder()
+                    .ticket(ticket)
+                    .posterName("user")
+                    .value("Comment " + i)
+                    .commentDate(start.plusMinutes(i))
+                    .build());
+        }
+        commentRepository.saveAll(comments);
+    }
+
     @Test
     void deleteNotLoggedIn() {
         webTestClient.delete()
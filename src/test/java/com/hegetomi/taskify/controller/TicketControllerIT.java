@@ -1,11 +1,21 @@
 package com.hegetomi.taskify.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hegetomi.taskify.audit.AuditArchiver;
+import com.hegetomi.taskify.audit.AuditOutboxWriter;
+import com.hegetomi.taskify.audit.TicketAuditSnapshot;
+import com.hegetomi.taskify.command.BatchTicketCommand;
+import com.hegetomi.taskify.command.BatchTicketUpdateCommand;
 import com.hegetomi.taskify.command.EditAssignedTicketCommand;
 import com.hegetomi.taskify.command.EditSubmittedTicketCommand;
 import com.hegetomi.taskify.command.LoginCommand;
 import com.hegetomi.taskify.command.NewTicketCommand;
+import com.hegetomi.taskify.dto.CursorPage;
 import com.hegetomi.taskify.dto.JwtTokenDto;
+import com.hegetomi.taskify.dto.SerializedTicketDetail;
 import com.hegetomi.taskify.dto.TicketDto;
+import com.hegetomi.taskify.dto.TicketFieldChangeDto;
 import com.hegetomi.taskify.dto.TicketHistoryDto;
 import com.hegetomi.taskify.entity.Ticket;
 import com.hegetomi.taskify.entity.User;
@@ -15,30 +25,53 @@ import com.hegetomi.taskify.enums.Type;
 import com.hegetomi.taskify.enums.UserRole;
 import com.hegetomi.taskify.repository.TaskifyUserRepository;
 import com.hegetomi.taskify.repository.TicketRepository;
+import com.hegetomi.taskify.security.TicketOwnershipIndex;
 import com.hegetomi.taskify.service.TaskifyUserService;
 import com.hegetomi.taskify.service.TicketService;
 import com.hegetomi.taskify.util.TimeMachine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.envers.RevisionType;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
-@Sql(statements = {"delete from comments", "delete from tickets", "delete from user_roles", "delete from taskify_users"})
+@Sql(statements = {"delete from ticket_counters", "delete from solve_time_histograms", "delete from ticket_rollups", "delete from ticket_status_transitions", "delete from ticket_status_states", "delete from status_flows", "delete from analytics_watermarks", "delete from comments", "delete from tickets", "delete from user_roles", "delete from taskify_users"})
 @Slf4j
 class TicketControllerIT {
 
@@ -58,6 +91,22 @@ class TicketControllerIT {
     PasswordEncoder passwordEncoder;
     @Autowired
     TimeMachine timeMachine;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    AuditOutboxWriter auditOutboxWriter;
+    @Autowired
+    AuditArchiver auditArchiver;
+    @Autowired
+    TicketOwnershipIndex ticketOwnershipIndex;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MeterRegistry meterRegistry;
     User user;
     User otherUser;
     User employee;
@@ -129,6 +178,107 @@ class TicketControllerIT {
                 .bodyValue(ticketCommandOne).exchange().expectStatus().isForbidden();
     }
 
+    @Test
+    void testCreateTicketsInBatch() {
+        List<NewTicketCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            commands.add(ticketCommandOne);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<TicketDto> responseBody = webTestClient.post().uri("/api/ticket/batch")
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .bodyValue(new BatchTicketCommand(commands))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBodyList(TicketDto.class).returnResult().getResponseBody();
+
+        assertThat(responseBody).hasSize(120)
+                .allMatch(ticket -> ticket.getPoster().getName().equals("user") && ticket.getStatus() == Status.BACKLOG);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(40);
+    }
+
+    @Test
+    void testCreateTicketsInBatchInvalidTicket() {
+        webTestClient.post().uri("/api/ticket/batch")
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .bodyValue(new BatchTicketCommand(List.of(ticketCommandOne, new NewTicketCommand(LONG_TITLE, VALID_DESCR, Priority.HIGH, Type.BUG))))
+                .exchange()
+                .expectStatus().isBadRequest();
+        assertThat(ticketRepository.count()).isZero();
+    }
+
+    @Test
+    void testUpdateTicketsInBatch() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, employee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Ticket save2 = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, employee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        List<TicketDto> responseBody = webTestClient.put().uri("/api/ticket/batch")
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .bodyValue(new BatchTicketUpdateCommand(List.of(save.getId(), save2.getId()), otherEmployee.getId(), Status.DONE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TicketDto.class).returnResult().getResponseBody();
+
+        assertThat(responseBody).hasSize(2)
+                .allMatch(ticket -> ticket.getAssignee().getName().equals("otherEmployee")
+                        && ticket.getStatus() == Status.DONE && ticket.getClosedAt() != null);
+    }
+
+    @Test
+    void testAssignUnassignedTicketsInBatch() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Ticket save2 = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        List<TicketDto> responseBody = webTestClient.put().uri("/api/ticket/batch")
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .bodyValue(new BatchTicketUpdateCommand(List.of(save.getId(), save2.getId()), employee.getId(), null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TicketDto.class).returnResult().getResponseBody();
+
+        assertThat(responseBody).hasSize(2)
+                .allMatch(ticket -> ticket.getAssignee().getName().equals("employee") && ticket.getStatus() == Status.BACKLOG);
+    }
+
+    @Test
+    void testAssignUnassignedTicketsToOtherInBatchForbidden() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        webTestClient.put().uri("/api/ticket/batch")
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .bodyValue(new BatchTicketUpdateCommand(List.of(save.getId()), otherEmployee.getId(), null))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void testUpdateStatusInBatchForbiddenForUnassignedTicket() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Ticket save2 = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, employee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        webTestClient.put().uri("/api/ticket/batch")
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .bodyValue(new BatchTicketUpdateCommand(List.of(save.getId(), save2.getId()), null, Status.DONE))
+                .exchange()
+                .expectStatus().isForbidden();
+        assertThat(ticketRepository.findById(save.getId())).get()
+                .extracting(Ticket::getStatus).isEqualTo(Status.BACKLOG);
+    }
+
+    @Test
+    void testUpdateTicketsInBatchForbiddenWhenAssignedToOther() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Ticket save2 = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, otherEmployee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        webTestClient.put().uri("/api/ticket/batch")
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .bodyValue(new BatchTicketUpdateCommand(List.of(save.getId(), save2.getId()), employee.getId(), null))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"user", "employee"})
     void testUserCreateInvalidTicketTitle(String username) {
@@ -186,6 +336,35 @@ class TicketControllerIT {
         assertThat(responseBody).extracting(TicketDto::getId).containsAll(List.of(save.getId(), save2.getId(), done.getId()));
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"user", "employee"})
+    void testGetSubmittedTicketsByStatusList(String username) {
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, usersMap.get(username), null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Ticket todo = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, usersMap.get(username), null, Priority.HIGH, Type.BUG, Status.TODO));
+        Ticket doing = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, usersMap.get(username), null, Priority.HIGH, Type.BUG, Status.DOING));
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, usersMap.get(username), null, Priority.HIGH, Type.BUG, Status.DONE));
+
+        JwtTokenDto dto = userService.login(new LoginCommand(username, "p4ssWord*"));
+        List<TicketDto> responseBody = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/ticket").queryParam("status", "TODO,DOING")
+                        .build())
+                .headers(h -> h.setBearerAuth(dto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TicketDto.class)
+                .returnResult().getResponseBody();
+        assertThat(responseBody).extracting(TicketDto::getId).containsExactly(todo.getId(), doing.getId());
+    }
+
+    @Test
+    void testGetSubmittedTicketsInvalidStatus() {
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/ticket").queryParam("status", "TODO,WAITING")
+                        .build())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange().expectStatus().isBadRequest();
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"user", "employee"})
     void testGetSubmittedTicketsInvalidParam(String username) {
@@ -237,6 +416,115 @@ class TicketControllerIT {
         assertThat(responseBody).extracting(e -> e.getPostedAt().getDayOfMonth()).isEqualTo(28);
     }
 
+    @Test
+    void testGetTicketDetailLoadsTicketOnce() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/ticket/" + save.getId())
+                        .build())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk();
+
+        // ticket with poster and assignee, the poster's roles and the latest comments; before the ticket was
+        // loaded once per request, the ownership query and the service load prepared 6 statements
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertThat(statistics.getEntityStatistics(Ticket.class.getName()).getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetTicketDetailIsCachedUntilEdited() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        ticketService.getTicketDetail(save.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        webTestClient.get().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        webTestClient.put().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .bodyValue(editCommand).exchange().expectStatus().isOk();
+        TicketDto responseBody = webTestClient.get().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TicketDto.class).returnResult().getResponseBody();
+
+        assert responseBody != null;
+        assertThat(responseBody.getTitle()).isEqualTo(editCommand.getTitle());
+        assertThat(responseBody.getVersion()).isEqualTo(save.getVersion() + 1);
+    }
+
+    @Test
+    void testSerializedTicketDetailIsReusedUntilEdited() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        SerializedTicketDetail first = ticketService.getSerializedTicketDetail(save.getId());
+
+        byte[] responseBody = webTestClient.get().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + save.getVersion() + "\"")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertThat(responseBody).isEqualTo(first.getJson());
+        assertThat(ticketService.getSerializedTicketDetail(save.getId()).getJson()).isSameAs(first.getJson());
+
+        webTestClient.put().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .bodyValue(editCommand).exchange().expectStatus().isOk();
+        SerializedTicketDetail edited = ticketService.getSerializedTicketDetail(save.getId());
+
+        assertThat(edited.getVersion()).isEqualTo(save.getVersion() + 1);
+        assertThat(new String(edited.getJson(), StandardCharsets.UTF_8)).contains(editCommand.getTitle());
+    }
+
+    @Test
+    void testTicketDetailCacheCountsEachLookupOnce() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Counter hits = meterRegistry.counter("taskify.ticket.cache", "result", "hit");
+        Counter misses = meterRegistry.counter("taskify.ticket.cache", "result", "miss");
+        double hitsBefore = hits.count();
+        double missesBefore = misses.count();
+
+        ticketService.getSerializedTicketDetail(save.getId());
+        assertThat(misses.count() - missesBefore).isEqualTo(1);
+        assertThat(hits.count() - hitsBefore).isZero();
+
+        ticketService.getSerializedTicketDetail(save.getId());
+        ticketService.getTicketDetail(save.getId());
+        assertThat(misses.count() - missesBefore).isEqualTo(1);
+        assertThat(hits.count() - hitsBefore).isEqualTo(2);
+    }
+
+    @Test
+    void testTicketDetailCacheDropsDetailChangedElsewhere() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        String etag = webTestClient.get().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(TicketDto.class).getResponseHeaders().getETag();
+        jdbcTemplate.update("update tickets set title = ?, version = version + 1 where id = ?", "Lorem ipsum", save.getId());
+
+        TicketDto responseBody = webTestClient.get().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + (save.getVersion() + 1) + "\"")
+                .expectBody(TicketDto.class).returnResult().getResponseBody();
+        assert responseBody != null;
+        assertThat(responseBody.getTitle()).isEqualTo("Lorem ipsum");
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"user", "employee"})
     void testGetSubmittedTicketDetailNotExistingForbidden(String username) {
@@ -310,6 +598,90 @@ class TicketControllerIT {
         assertThat(responseBody.getType()).isEqualTo(editCommand.getType());
     }
 
+    @Test
+    void testGetTicketDetailNotModified() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        String etag = webTestClient.get().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(TicketDto.class).getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void testEditSubmittedTicketWithStaleIfMatch() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        String etag = webTestClient.put().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .header(HttpHeaders.IF_MATCH, "\"" + save.getVersion() + "\"")
+                .bodyValue(editCommand).exchange()
+                .expectStatus().isOk()
+                .returnResult(TicketDto.class).getResponseHeaders().getETag();
+        assertThat(etag).isEqualTo("\"" + (save.getVersion() + 1) + "\"");
+
+        webTestClient.put().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .header(HttpHeaders.IF_MATCH, "\"" + save.getVersion() + "\"")
+                .bodyValue(editCommand).exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void testEditSubmittedTicketWithIfMatchList() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        webTestClient.put().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .header(HttpHeaders.IF_MATCH, "\"" + (save.getVersion() + 10) + "\", \"" + save.getVersion() + "\"")
+                .bodyValue(editCommand).exchange()
+                .expectStatus().isOk();
+        webTestClient.put().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .header(HttpHeaders.IF_MATCH, "\"" + (save.getVersion() + 10) + "\", \"" + (save.getVersion() + 20) + "\"")
+                .bodyValue(editCommand).exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void testWeakETagMatchesIfNoneMatchButNotIfMatch() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        String weak = "W/\"" + save.getVersion() + "\"";
+
+        webTestClient.get().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .ifNoneMatch(weak)
+                .exchange()
+                .expectStatus().isNotModified();
+        webTestClient.put().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .header(HttpHeaders.IF_MATCH, weak)
+                .bodyValue(editCommand).exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        webTestClient.put().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .header(HttpHeaders.IF_MATCH, weak + ", \"" + save.getVersion() + "\"")
+                .bodyValue(editCommand).exchange()
+                .expectStatus().isOk();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"abc", "\"1", "1", "\"1\",", "\"x\""})
+    void testEditSubmittedTicketWithMalformedIfMatch(String ifMatch) {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        webTestClient.put().uri("/api/ticket/" + save.getId())
+                .headers(h -> h.setBearerAuth(userLoginDto.getJwt()))
+                .header(HttpHeaders.IF_MATCH, ifMatch)
+                .bodyValue(editCommand).exchange()
+                .expectStatus().isBadRequest();
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"user", "employee"})
     void testEditOtherUsersSubmittedTicketDetail(String name) {
@@ -400,6 +772,117 @@ class TicketControllerIT {
                 .headers(h -> h.setBearerAuth(dto.getJwt())).exchange().expectStatus().isForbidden();
     }
 
+    @Test
+    void testAssignmentIsVisibleToFollowingAuthorization() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        JwtTokenDto otherDto = userService.login(new LoginCommand("otherEmployee", "p4ssWord*"));
+        webTestClient.put().uri(uriBuilder -> uriBuilder.path("/api/ticket/assign/").path(save.getId() + "")
+                        .queryParam("user", employee.getId()).build())
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt())).exchange()
+                .expectStatus().isOk();
+
+        webTestClient.put().uri(uriBuilder -> uriBuilder.path("/api/ticket/assign/").path(save.getId() + "")
+                        .queryParam("user", otherEmployee.getId()).build())
+                .headers(h -> h.setBearerAuth(otherDto.getJwt())).exchange()
+                .expectStatus().isForbidden();
+        webTestClient.get().uri("/api/ticket/assigned/" + save.getId())
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt())).exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void testClaimTakesHighestPriorityOldestTicket() {
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.LOW, Type.BUG, Status.BACKLOG));
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.CRITICAL, Type.BUG, Status.DONE));
+        Ticket high = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        TicketDto responseBody = webTestClient.post().uri("/api/ticket/claim")
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt())).exchange()
+                .expectStatus().isOk()
+                .expectBody(TicketDto.class).returnResult().getResponseBody();
+        assertThat(responseBody).extracting(TicketDto::getId).isEqualTo(high.getId());
+        assertThat(responseBody).extracting(e -> e.getAssignee().getName()).isEqualTo("employee");
+    }
+
+    @Test
+    void testClaimWithoutUnassignedTicketsIsNoContent() {
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, otherEmployee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        webTestClient.post().uri("/api/ticket/claim")
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt())).exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void testClaimLooksPastLockedCandidateWindow() throws Exception {
+        for (int i = 0; i < 64; i++) {
+            ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        }
+        Ticket low = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.LOW, Type.BUG, Status.BACKLOG));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate holderTransaction = new TransactionTemplate(transactionManager);
+        holderTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> holderTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("select id from tickets where priority = 'HIGH' for update", Long.class);
+            locked.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertThat(locked.await(30, TimeUnit.SECONDS)).isTrue();
+            TicketDto responseBody = webTestClient.post().uri("/api/ticket/claim")
+                    .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt())).exchange()
+                    .expectStatus().isOk()
+                    .expectBody(TicketDto.class).returnResult().getResponseBody();
+            assertThat(responseBody).extracting(TicketDto::getId).isEqualTo(low.getId());
+        } finally {
+            release.countDown();
+            holder.get(30, TimeUnit.SECONDS);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testConcurrentClaimsNeverShareATicket() throws Exception {
+        int ticketCount = 16;
+        int claimers = 24;
+        for (int i = 0; i < ticketCount; i++) {
+            ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        }
+        JwtTokenDto otherDto = userService.login(new LoginCommand("otherEmployee", "p4ssWord*"));
+        ExecutorService executor = Executors.newFixedThreadPool(claimers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> claims = new ArrayList<>();
+        for (int i = 0; i < claimers; i++) {
+            String jwt = i % 2 == 0 ? employeeLoginDto.getJwt() : otherDto.getJwt();
+            claims.add(executor.submit(() -> {
+                start.await();
+                TicketDto claimed = webTestClient.post().uri("/api/ticket/claim")
+                        .headers(h -> h.setBearerAuth(jwt)).exchange()
+                        .expectBody(TicketDto.class).returnResult().getResponseBody();
+                return claimed == null ? null : claimed.getId();
+            }));
+        }
+        start.countDown();
+        List<Long> claimedIds = new ArrayList<>();
+        for (Future<Long> claim : claims) {
+            Long id = claim.get(30, TimeUnit.SECONDS);
+            if (id != null) {
+                claimedIds.add(id);
+            }
+        }
+        executor.shutdown();
+
+        assertThat(claimedIds).hasSize(ticketCount).doesNotHaveDuplicates();
+        assertThat(ticketRepository.findAll()).allMatch(ticket -> ticket.getAssignee() != null);
+    }
+
     @Test
     void testAssignTicketNotFoundTicketId() {
         JwtTokenDto dto = userService.login(new LoginCommand("employee", "p4ssWord*"));
@@ -526,6 +1009,21 @@ class TicketControllerIT {
 
     }
 
+    @Test
+    void testReassignmentOutsideTheAppIsEnforcedOnWrites() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, employee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        jdbcTemplate.update("update tickets set assignee_id = ? where id = ?", otherEmployee.getId(), save.getId());
+
+        webTestClient.put().uri("/api/ticket/assigned/" + save.getId())
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .bodyValue(editAssignedCommand).exchange().expectStatus().isForbidden();
+
+        ticketOwnershipIndex.resync();
+        webTestClient.get().uri("/api/ticket/assigned/" + save.getId())
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .exchange().expectStatus().isForbidden();
+    }
+
     @Test
     void testEditNotFoundAssignedTicketDetail() {
         JwtTokenDto dto = userService.login(new LoginCommand(employee.getName(), "p4ssWord*"));
@@ -634,6 +1132,90 @@ class TicketControllerIT {
         assertThat(responseBody).hasSize(2).extracting(TicketDto::getId).containsExactly(save3.getId(), save4.getId());
     }
 
+    @Test
+    void testGetUnassignedPagedWithCursor() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Ticket save2 = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Ticket save3 = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        EntityExchangeResult<List<TicketDto>> firstPage = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/ticket/unassigned").queryParam("size", 2).build())
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk().expectBodyList(TicketDto.class).returnResult();
+        String cursor = firstPage.getResponseHeaders().getFirst(TicketController.NEXT_CURSOR_HEADER);
+        assertThat(firstPage.getResponseBody()).extracting(TicketDto::getId).containsExactly(save.getId(), save2.getId());
+        assertThat(cursor).isNotNull();
+
+        EntityExchangeResult<List<TicketDto>> secondPage = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/ticket/unassigned").queryParam("size", 2)
+                        .queryParam("cursor", cursor).build())
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk().expectBodyList(TicketDto.class).returnResult();
+        assertThat(secondPage.getResponseBody()).extracting(TicketDto::getId).containsExactly(save3.getId());
+        assertThat(secondPage.getResponseHeaders().containsKey(TicketController.NEXT_CURSOR_HEADER)).isFalse();
+    }
+
+    @Test
+    void testGetUnassignedInvalidCursor() {
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/ticket/unassigned").queryParam("cursor", "not-a-cursor").build())
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testGetUnassignedStatementCountDoesNotGrowWithRows() {
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        getUnassigned();
+        long statementsForOneRow = statistics.getPrepareStatementCount();
+
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, otherUser, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, employee, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, otherEmployee, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        statistics.clear();
+        List<TicketDto> tickets = getUnassigned();
+
+        assertThat(tickets).hasSize(5);
+        assertThat(tickets.get(0).getPoster().getRoles()).containsExactly(UserRole.ROLE_USER);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsForOneRow);
+    }
+
+    private List<TicketDto> getUnassigned() {
+        return webTestClient.get()
+                .uri("/api/ticket/unassigned")
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk().expectBodyList(TicketDto.class).returnResult().getResponseBody();
+    }
+
+    @Test
+    void testExportUnassignedAsNdjson() throws JsonProcessingException {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        Ticket save2 = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, employee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        String responseBody = webTestClient.get()
+                .uri("/api/ticket/unassigned")
+                .accept(MediaType.parseMediaType(TicketController.NDJSON))
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(TicketController.NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        List<TicketDto> exported = new ArrayList<>();
+        for (String line : responseBody.split("\n")) {
+            exported.add(objectMapper.readValue(line, TicketDto.class));
+        }
+        assertThat(exported).extracting(TicketDto::getId).containsExactly(save.getId(), save2.getId());
+    }
+
     @Test
     void testTicketHistoryById() {
         Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, employee, Priority.HIGH, Type.BUG, Status.BACKLOG));
@@ -651,8 +1233,115 @@ class TicketControllerIT {
                 .isOk().expectBodyList(TicketHistoryDto.class)
                 .returnResult().getResponseBody();
 
-        assertThat(responseBody).hasSize(3).extracting(e -> e.getTicketDto().getPriority())
-                .containsExactlyInAnyOrder(Priority.HIGH, Priority.LOW, Priority.MEDIUM);
+        assert responseBody != null;
+        assertThat(responseBody).extracting(TicketHistoryDto::getRevisionType)
+                .containsExactly(RevisionType.ADD, RevisionType.MOD, RevisionType.MOD);
+        assertThat(responseBody.get(0).getChanges()).extracting(TicketFieldChangeDto::getField)
+                .contains("title", "priority", "assigneeId");
+        assertThat(responseBody.subList(1, 3)).allSatisfy(history -> assertThat(history.getChanges())
+                .extracting(TicketFieldChangeDto::getField).containsExactly("priority"));
+        assertThat(responseBody).flatExtracting(TicketHistoryDto::getChanges)
+                .filteredOn(change -> "priority".equals(change.getField()))
+                .extracting(TicketFieldChangeDto::getTo)
+                .containsExactly("HIGH", "LOW", "MEDIUM");
+    }
+
+    @Test
+    void testTicketHistoryPagedByRevision() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, employee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        ticketService.editAssignedTicketDetail(save.getId(), new EditAssignedTicketCommand(VALID_TITLE, VALID_DESCR, Priority.LOW, Type.BUG, Status.BACKLOG));
+        ticketService.editAssignedTicketDetail(save.getId(), new EditAssignedTicketCommand(VALID_TITLE, VALID_DESCR, Priority.MEDIUM, Type.BUG, Status.BACKLOG));
+
+        EntityExchangeResult<List<TicketHistoryDto>> firstPage = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/ticket/history/" + save.getId())
+                        .queryParam("size", 2)
+                        .build())
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TicketHistoryDto.class).returnResult();
+        String cursor = firstPage.getResponseHeaders().getFirst(TicketController.NEXT_CURSOR_HEADER);
+        assertThat(firstPage.getResponseBody()).hasSize(2);
+        assertThat(cursor).isEqualTo(String.valueOf(firstPage.getResponseBody().get(1).getRevision()));
+
+        List<TicketHistoryDto> secondPage = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/ticket/history/" + save.getId())
+                        .queryParam("size", 2)
+                        .queryParam("cursor", cursor)
+                        .build())
+                .headers(h -> h.setBearerAuth(employeeLoginDto.getJwt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(TicketController.NEXT_CURSOR_HEADER)
+                .expectBodyList(TicketHistoryDto.class).returnResult().getResponseBody();
+
+        assert secondPage != null;
+        assertThat(secondPage).hasSize(1);
+        assertThat(secondPage.get(0).getChanges()).singleElement()
+                .satisfies(change -> {
+                    assertThat(change.getField()).isEqualTo("priority");
+                    assertThat(change.getFrom()).isEqualTo("LOW");
+                    assertThat(change.getTo()).isEqualTo("MEDIUM");
+                });
+    }
+
+    @Test
+    void testAuditOutboxIsDrainedIntoTicketHistory() throws JsonProcessingException {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, employee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        TicketAuditSnapshot snapshot = new TicketAuditSnapshot(VALID_TITLE, VALID_DESCR, save.getPostedAt(),
+                Priority.LOW, Type.BUG, Status.BACKLOG, null, null, employee.getId());
+        jdbcTemplate.update("insert into audit_outbox (tx_key, entity_type, entity_id, revision_type, revision_timestamp, payload) " +
+                        "values (?, 'TICKET', ?, 1, ?, ?)",
+                "outbox-test", save.getId(), System.currentTimeMillis(), objectMapper.writeValueAsString(snapshot));
+
+        assertThat(auditOutboxWriter.drainOutbox()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from audit_outbox", Integer.class)).isZero();
+
+        List<TicketHistoryDto> history = ticketService.findTicketHistoryById(save.getId(), null, null).getItems();
+        assertThat(history).hasSize(2);
+        assertThat(history.get(1).getRevisionType()).isEqualTo(RevisionType.MOD);
+        assertThat(history.get(1).getChanges()).singleElement()
+                .satisfies(change -> {
+                    assertThat(change.getField()).isEqualTo("priority");
+                    assertThat(change.getFrom()).isEqualTo(Priority.HIGH);
+                    assertThat(change.getTo()).isEqualTo(Priority.LOW);
+                });
+    }
+
+    @Test
+    void testTicketHistoryMergesArchivedRevisions() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, employee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        ticketService.editAssignedTicketDetail(save.getId(), new EditAssignedTicketCommand(VALID_TITLE, VALID_DESCR, Priority.LOW, Type.BUG, Status.BACKLOG));
+
+        assertThat(auditArchiver.archiveOlderThan(System.currentTimeMillis() + 1000)).isPositive();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tickets_aud where id = ?", Integer.class, save.getId())).isZero();
+
+        ticketService.editAssignedTicketDetail(save.getId(), new EditAssignedTicketCommand(VALID_TITLE, VALID_DESCR, Priority.MEDIUM, Type.BUG, Status.BACKLOG));
+
+        CursorPage<TicketHistoryDto> firstPage = ticketService.findTicketHistoryById(save.getId(), null, 2);
+        assertThat(firstPage.getItems()).extracting(TicketHistoryDto::getRevisionType)
+                .containsExactly(RevisionType.ADD, RevisionType.MOD);
+        List<TicketHistoryDto> secondPage = ticketService.findTicketHistoryById(save.getId(),
+                Integer.valueOf(firstPage.getNextCursor()), 2).getItems();
+        assertThat(secondPage).singleElement()
+                .satisfies(history -> assertThat(history.getChanges()).singleElement()
+                        .satisfies(change -> {
+                            assertThat(change.getField()).isEqualTo("priority");
+                            assertThat(change.getFrom()).isEqualTo(Priority.LOW);
+                            assertThat(change.getTo()).isEqualTo(Priority.MEDIUM);
+                        }));
+    }
+
+    @Test
+    void testArchiverRefusesToPruneRevisionsArchivedElsewhere() {
+        Ticket save = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, employee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        auditArchiver.archiveOlderThan(System.currentTimeMillis() + 1000);
+        jdbcTemplate.update("update analytics_watermarks set last_id = last_id + 1000 where name = 'audit-archive'");
+        ticketService.editAssignedTicketDetail(save.getId(), new EditAssignedTicketCommand(VALID_TITLE, VALID_DESCR, Priority.LOW, Type.BUG, Status.BACKLOG));
+
+        assertThatThrownBy(() -> auditArchiver.archiveOlderThan(System.currentTimeMillis() + 1000))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tickets_aud where id = ?", Integer.class, save.getId())).isOne();
     }
 
     @Test
@@ -3,17 +3,27 @@ package com.hegetomi.taskify.controller;
 import com.hegetomi.taskify.command.*;
 import com.hegetomi.taskify.dto.JwtTokenDto;
 import com.hegetomi.taskify.dto.UserDto;
+import com.hegetomi.taskify.dto.manager.CumulativeFlowDto;
+import com.hegetomi.taskify.dto.manager.StatusTimeDto;
+import com.hegetomi.taskify.dto.manager.TicketAverageSolveTimeDto;
 import com.hegetomi.taskify.dto.manager.TicketAverageSolveTimeDtoImpl;
+import com.hegetomi.taskify.dto.manager.TicketSolveRateDto;
 import com.hegetomi.taskify.dto.manager.TicketSolveRateDtoImpl;
+import com.hegetomi.taskify.dto.manager.TicketThroughputDto;
 import com.hegetomi.taskify.entity.Ticket;
 import com.hegetomi.taskify.entity.User;
 import com.hegetomi.taskify.enums.Priority;
+import com.hegetomi.taskify.enums.RollupGranularity;
 import com.hegetomi.taskify.enums.Status;
 import com.hegetomi.taskify.enums.Type;
 import com.hegetomi.taskify.enums.UserRole;
 import com.hegetomi.taskify.repository.TaskifyUserRepository;
 import com.hegetomi.taskify.repository.TicketRepository;
+import com.hegetomi.taskify.service.SolveTimeStatsService;
+import com.hegetomi.taskify.service.StatusAnalyticsService;
 import com.hegetomi.taskify.service.TaskifyUserService;
+import com.hegetomi.taskify.service.TicketCounterReconciler;
+import com.hegetomi.taskify.service.TicketRollupService;
 import com.hegetomi.taskify.service.TicketService;
 import com.hegetomi.taskify.util.TimeMachine;
 import lombok.extern.slf4j.Slf4j;
@@ -22,17 +32,30 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.ProblemDetail;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.withinPercentage;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
-@Sql(statements = {"delete from tickets", "delete from user_roles", "delete from taskify_users"})
+@Sql(statements = {"delete from ticket_counters", "delete from solve_time_histograms", "delete from ticket_rollups", "delete from ticket_status_transitions", "delete from ticket_status_states", "delete from status_flows", "delete from analytics_watermarks", "delete from tickets", "delete from user_roles", "delete from taskify_users"})
 @Slf4j
 class UserControllerIT {
 
@@ -50,6 +73,18 @@ class UserControllerIT {
     TicketRepository ticketRepository;
     @Autowired
     TimeMachine timeMachine;
+    @Autowired
+    TicketCounterReconciler ticketCounterReconciler;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TicketRollupService ticketRollupService;
+    @Autowired
+    SolveTimeStatsService solveTimeStatsService;
+    @Autowired
+    StatusAnalyticsService statusAnalyticsService;
+    @Autowired
+    PlatformTransactionManager transactionManager;
 
     static final String VALID_TITLE = "Lorem ipsu";
     static final String VALID_DESCR = "Lorem ipsum dolor sit amet, consectetuer adipiscing elit. Aenean commodo ligula eget dolor. Aenean m";
@@ -181,6 +216,25 @@ class UserControllerIT {
         assertThat(responseBody.getDetail()).isEqualTo("User was not found");
     }
 
+    @Test
+    void testRightsChangeRejectsPreviouslyIssuedJwt() {
+        JwtTokenDto oldToken = userService.login(new LoginCommand("user", "p4ssWord*"));
+        userService.updateUserRights(user.getId(), new EditUserRightsCommand(List.of(UserRole.ROLE_USER, UserRole.ROLE_EMPLOYEE)));
+
+        webTestClient.get()
+                .uri("/api/user/me")
+                .headers(e -> e.setBearerAuth(oldToken.getJwt()))
+                .exchange()
+                .expectStatus().isForbidden();
+
+        JwtTokenDto newToken = userService.login(new LoginCommand("user", "p4ssWord*"));
+        webTestClient.get()
+                .uri("/api/user/me")
+                .headers(e -> e.setBearerAuth(newToken.getJwt()))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
     @Test
     void testAddEmployeeToUserNotAffectsPostedTicket() {
         ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
@@ -347,6 +401,26 @@ class UserControllerIT {
         assertThat(responseBody).hasSize(2).extracting(TicketSolveRateDtoImpl::getCount).containsExactly(2, 1);
     }
 
+    @Test
+    void testStatsFollowTicketChangesAndReconciliation() {
+        Ticket ticket = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, user, null, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, otherEmployee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+
+        ticketService.assignToUser(ticket.getId(), employee.getId());
+        assertThat(userService.getTicketStatsByUser(true)).extracting(TicketSolveRateDto::getCount).containsExactly(1, 1);
+
+        ticketService.editAssignedTicketDetail(ticket.getId(), new EditAssignedTicketCommand(VALID_TITLE, VALID_DESCR, Priority.LOW, Type.BUG, Status.DONE));
+        assertThat(userService.getTicketStatsByUser(true)).extracting(TicketSolveRateDto::getName).containsExactly("otherEmployee");
+        assertThat(userService.getTicketStatsByUser(false)).extracting(TicketSolveRateDto::getName).containsExactly("employee");
+
+        userService.updateUserRights(otherEmployee.getId(), new EditUserRightsCommand(List.of(UserRole.ROLE_USER)));
+        assertThat(userService.getTicketStatsByUser(true)).isEmpty();
+
+        jdbcTemplate.update("update tickets set assignee_id = ?, status = 'DOING'", employee.getId());
+        assertThat(ticketCounterReconciler.reconcile()).isEqualTo(2);
+        assertThat(userService.getTicketStatsByUser(true)).extracting(TicketSolveRateDto::getCount).containsExactly(2);
+    }
+
     @Test
     void testGetStatsClosedByEmployeeNoRole() {
         webTestClient.get()
@@ -399,6 +473,209 @@ class UserControllerIT {
                 .isOk().expectBodyList(TicketAverageSolveTimeDtoImpl.class)
                 .returnResult().getResponseBody();
         assertThat(responseBody).hasSize(2).extracting(TicketAverageSolveTimeDtoImpl::getDays).containsExactly(14.0, 11.5);
+        assertThat(responseBody.get(0)).satisfies(stats -> {
+            assertThat(stats.getCount()).isEqualTo(3);
+            assertThat(stats.getMinMinutes()).isEqualTo(9 * 24 * 60);
+            assertThat(stats.getMaxMinutes()).isEqualTo(19 * 24 * 60);
+            assertThat(stats.getP50Minutes()).isCloseTo(14 * 24 * 60, withinPercentage(1));
+        });
+    }
+
+    @Test
+    void testConcurrentSolvesAreAllRecorded() throws Exception {
+        EditAssignedTicketCommand editToDone = new EditAssignedTicketCommand(null, null, Priority.LOW, Type.BUG, Status.DONE);
+        Ticket first = ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, employee, Priority.HIGH, Type.BUG, Status.BACKLOG));
+        ticketService.editAssignedTicketDetail(first.getId(), editToDone);
+        int solvers = 8;
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < solvers; i++) {
+            tickets.add(ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, employee, Priority.HIGH, Type.BUG, Status.BACKLOG)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(solvers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (Ticket ticket : tickets) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return ticketService.editAssignedTicketDetail(ticket.getId(), editToDone);
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(solveTimeStatsService.getSolveTimesByEmployee()).singleElement()
+                .extracting(TicketAverageSolveTimeDto::getCount).isEqualTo((long) solvers + 1);
+    }
+
+    @Test
+    void testGetWeeklyThroughputByEmployee() {
+        Ticket first = new Ticket(VALID_TITLE, VALID_DESCR, null, employee, Priority.HIGH, Type.BUG, Status.BACKLOG);
+        Ticket second = new Ticket(VALID_TITLE, VALID_DESCR, null, employee, Priority.HIGH, Type.BUG, Status.BACKLOG);
+        Ticket other = new Ticket(VALID_TITLE, VALID_DESCR, null, otherEmployee, Priority.LOW, Type.FEATURE_REQUEST, Status.BACKLOG);
+        first.setPostedAt(LocalDateTime.of(2023, 2, 6, 10, 0));
+        second.setPostedAt(LocalDateTime.of(2023, 2, 8, 10, 0));
+        other.setPostedAt(LocalDateTime.of(2023, 2, 13, 10, 0));
+        Ticket save = ticketRepository.save(first);
+        ticketRepository.save(second);
+        ticketRepository.save(other);
+        timeMachine.setTime(LocalDateTime.of(2023, 2, 9, 10, 0));
+        ticketService.editAssignedTicketDetail(save.getId(), new EditAssignedTicketCommand(VALID_TITLE, VALID_DESCR, Priority.HIGH, Type.BUG, Status.DONE));
+
+        List<TicketThroughputDto> responseBody = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/user/throughput")
+                        .queryParam("from", "2023-02-07")
+                        .queryParam("to", "2023-02-14")
+                        .queryParam("granularity", "WEEK")
+                        .build())
+                .headers(h -> h.setBearerAuth(managerJwt.getJwt()))
+                .exchange()
+                .expectStatus()
+                .isOk().expectBodyList(TicketThroughputDto.class)
+                .returnResult().getResponseBody();
+        assertThat(responseBody).hasSize(2);
+        assertThat(responseBody.get(0)).satisfies(week -> {
+            assertThat(week.getBucket()).isEqualTo(LocalDate.of(2023, 2, 6));
+            assertThat(week.getName()).isEqualTo("employee");
+            assertThat(week.getOpened()).isEqualTo(2);
+            assertThat(week.getClosed()).isEqualTo(1);
+            assertThat(week.getSolveMinutes()).isEqualTo(3 * 24 * 60);
+        });
+        assertThat(responseBody.get(1)).satisfies(week -> {
+            assertThat(week.getBucket()).isEqualTo(LocalDate.of(2023, 2, 13));
+            assertThat(week.getName()).isEqualTo("otherEmployee");
+            assertThat(week.getPriority()).isEqualTo(Priority.LOW);
+        });
+
+        List<TicketThroughputDto> incremental = ticketRollupService.getThroughput(LocalDate.of(2023, 2, 1), LocalDate.of(2023, 2, 28), RollupGranularity.DAY);
+        ticketRollupService.reconcile();
+        assertThat(ticketRollupService.getThroughput(LocalDate.of(2023, 2, 1), LocalDate.of(2023, 2, 28), RollupGranularity.DAY))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(incremental);
+    }
+
+    @Test
+    void testGetThroughputInvalidRange() {
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/user/throughput")
+                        .queryParam("from", "2023-02-14")
+                        .queryParam("to", "2023-02-07")
+                        .build())
+                .headers(h -> h.setBearerAuth(managerJwt.getJwt()))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void testGetTimeInStatusAndCumulativeFlow() {
+        Ticket ticket = new Ticket(VALID_TITLE, VALID_DESCR, null, employee, Priority.HIGH, Type.BUG, Status.BACKLOG);
+        Ticket other = new Ticket(VALID_TITLE, VALID_DESCR, null, otherEmployee, Priority.LOW, Type.BUG, Status.BACKLOG);
+        ticket.setPostedAt(LocalDateTime.of(2023, 3, 1, 10, 0));
+        other.setPostedAt(LocalDateTime.of(2023, 3, 1, 10, 0));
+        Ticket save = ticketRepository.save(ticket);
+        ticketRepository.save(other);
+        timeMachine.setTime(LocalDateTime.of(2023, 3, 2, 10, 0));
+        ticketService.editAssignedTicketDetail(save.getId(), new EditAssignedTicketCommand(VALID_TITLE, VALID_DESCR, Priority.HIGH, Type.BUG, Status.DOING));
+        statusAnalyticsService.refresh();
+
+        List<StatusTimeDto> cycleTime = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/user/cycle-time")
+                        .queryParam("from", "2023-03-01")
+                        .queryParam("to", "2023-03-05")
+                        .queryParam("assigneeId", employee.getId())
+                        .build())
+                .headers(h -> h.setBearerAuth(managerJwt.getJwt()))
+                .exchange()
+                .expectStatus()
+                .isOk().expectBodyList(StatusTimeDto.class)
+                .returnResult().getResponseBody();
+        assertThat(cycleTime).filteredOn(row -> row.getStatus() == Status.BACKLOG).singleElement().satisfies(row -> {
+            assertThat(row.getTickets()).isEqualTo(1);
+            assertThat(row.getTotalMinutes()).isEqualTo(24 * 60);
+        });
+        assertThat(cycleTime).filteredOn(row -> row.getStatus() == Status.DOING).singleElement()
+                .satisfies(row -> assertThat(row.getTickets()).isZero());
+
+        timeMachine.setTime(LocalDateTime.of(2023, 3, 4, 10, 0));
+        ticketService.editAssignedTicketDetail(save.getId(), new EditAssignedTicketCommand(VALID_TITLE, VALID_DESCR, Priority.HIGH, Type.BUG, Status.DONE));
+        statusAnalyticsService.refresh();
+
+        assertThat(userService.getTimeInStatus(LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 5), employee.getId()))
+                .filteredOn(row -> row.getStatus() == Status.DOING).singleElement().satisfies(row -> {
+                    assertThat(row.getTickets()).isEqualTo(1);
+                    assertThat(row.getAverageMinutes()).isEqualTo(2 * 24 * 60);
+                });
+
+        List<CumulativeFlowDto> flow = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/user/flow")
+                        .queryParam("from", "2023-03-02")
+                        .queryParam("to", "2023-03-04")
+                        .build())
+                .headers(h -> h.setBearerAuth(managerJwt.getJwt()))
+                .exchange()
+                .expectStatus()
+                .isOk().expectBodyList(CumulativeFlowDto.class)
+                .returnResult().getResponseBody();
+        assertThat(flow).hasSize(3 * Status.values().length);
+        assertThat(flow).filteredOn(row -> row.getDay().equals(LocalDate.of(2023, 3, 2)))
+                .extracting(CumulativeFlowDto::getStatus, CumulativeFlowDto::getCount)
+                .contains(tuple(Status.BACKLOG, 1L), tuple(Status.DOING, 1L), tuple(Status.DONE, 0L));
+        assertThat(flow).filteredOn(row -> row.getDay().equals(LocalDate.of(2023, 3, 4)))
+                .extracting(CumulativeFlowDto::getStatus, CumulativeFlowDto::getCount)
+                .contains(tuple(Status.BACKLOG, 1L), tuple(Status.DOING, 0L), tuple(Status.DONE, 1L));
+    }
+
+    @Test
+    void testLateCommittedTransitionIsNotSkipped() throws Exception {
+        Ticket ticket = new Ticket(VALID_TITLE, VALID_DESCR, null, employee, Priority.HIGH, Type.BUG, Status.BACKLOG);
+        ticket.setPostedAt(LocalDateTime.of(2023, 3, 1, 10, 0));
+        Ticket save = ticketRepository.save(ticket);
+        assertThat(statusAnalyticsService.refresh()).isEqualTo(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> late = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into ticket_status_transitions (ticket_id, assignee_id, from_status, to_status, transitioned_at) " +
+                    "values (?, ?, 'BACKLOG', 'DOING', ?)", save.getId(), employee.getId(), Timestamp.valueOf(LocalDateTime.of(2023, 3, 2, 10, 0)));
+            inserted.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+        ticketRepository.save(new Ticket(VALID_TITLE, VALID_DESCR, null, otherEmployee, Priority.LOW, Type.BUG, Status.BACKLOG));
+        assertThat(statusAnalyticsService.refresh()).isEqualTo(1);
+
+        release.countDown();
+        late.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertThat(statusAnalyticsService.refresh()).isEqualTo(1);
+
+        assertThat(userService.getTimeInStatus(LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 5), employee.getId()))
+                .filteredOn(row -> row.getStatus() == Status.BACKLOG).singleElement().satisfies(row -> {
+                    assertThat(row.getTickets()).isEqualTo(1);
+                    assertThat(row.getTotalMinutes()).isEqualTo(24 * 60);
+                });
+    }
+
+    @Test
+    void testGetCumulativeFlowInvalidRange() {
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/user/flow")
+                        .queryParam("from", "2023-03-04")
+                        .queryParam("to", "2023-03-02")
+                        .build())
+                .headers(h -> h.setBearerAuth(managerJwt.getJwt()))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
     }
 
     @Test
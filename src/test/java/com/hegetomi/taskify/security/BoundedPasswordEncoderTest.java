@@ -0,0 +1,92 @@
+package com.hegetomi.taskify.security;
+
+import com.hegetomi.taskify.exception.GlobalExceptionHandler;
+import com.hegetomi.taskify.exception.ServerBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void cleanup() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void testSaturatedPoolIsShedWithServiceUnavailable() throws InterruptedException {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, 5000, meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        awaitQueued(1);
+
+        assertThatThrownBy(() -> encoder.encode("third")).isInstanceOf(ServerBusyException.class);
+        assertThat(meterRegistry.counter("taskify.password.rejected").count()).isEqualTo(1);
+        assertThat(new GlobalExceptionHandler().handleServerBusyException(new ServerBusyException()).getStatus())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        release.countDown();
+        assertThat(running.join()).isEqualTo("first");
+        assertThat(queued.join()).isEqualTo("second");
+    }
+
+    @Test
+    void testHashingPastTimeoutIsShed() throws InterruptedException {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, 50, meterRegistry);
+
+        assertThatThrownBy(() -> encoder.encode("slow")).isInstanceOf(ServerBusyException.class);
+        assertThat(meterRegistry.counter("taskify.password.rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCalibratedStrengthNeverBelowMinimum() {
+        assertThat(BoundedPasswordEncoder.calibrateStrength(0, 10)).isEqualTo(10);
+        assertThat(BoundedPasswordEncoder.calibrateStrength(1, 6)).isGreaterThanOrEqualTo(6);
+        assertThat(BoundedPasswordEncoder.calibrateStrength(50, 4)).isBetween(4, 16);
+    }
+
+    private void awaitQueued(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("taskify.password.queue").gauge().value() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.hegetomi.taskify.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    MeterRegistry meterRegistry;
+    VerifiedTokenCache cache;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new VerifiedTokenCache(3, meterRegistry);
+    }
+
+    @Test
+    void testHitAndMiss() {
+        cache.put("a", principal(1L), inOneHour());
+
+        assertThat(cache.get("a")).get().extracting(TaskifyPrincipal::getId).isEqualTo(1L);
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(meterRegistry.counter("taskify.jwt.cache", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("taskify.jwt.cache", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testExpiredEntryIsMissAndDropped() {
+        cache.put("a", principal(1L), Instant.now().plusMillis(50));
+        cache.put("b", principal(2L), Instant.now().minusSeconds(1));
+
+        assertThat(cache.size()).isEqualTo(1);
+        await(Duration.ofMillis(100));
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testFullCacheEvictsOldestAndKeepsCaching() {
+        for (long i = 1; i <= 5; i++) {
+            cache.put("token" + i, principal(i), inOneHour());
+        }
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get("token1")).isEmpty();
+        assertThat(cache.get("token2")).isEmpty();
+        assertThat(cache.get("token5")).get().extracting(TaskifyPrincipal::getId).isEqualTo(5L);
+    }
+
+    @Test
+    void testEvictAndReinsertStayBounded() {
+        for (int round = 0; round < 100; round++) {
+            cache.put("a", principal(1L), inOneHour());
+            cache.evict("a");
+            cache.put("b", principal(2L), inOneHour());
+        }
+        cache.put("c", principal(3L), inOneHour());
+        cache.put("d", principal(4L), inOneHour());
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get("b")).isPresent();
+        assertThat(cache.get("d")).isPresent();
+    }
+
+    private static TaskifyPrincipal principal(Long id) {
+        return new TaskifyPrincipal(id, "user" + id, 0, List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE")));
+    }
+
+    private static Instant inOneHour() {
+        return Instant.now().plus(Duration.ofHours(1));
+    }
+
+    private static void await(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}